@@ -1,6 +1,13 @@
 package com.ankoki.blossom;
 
+import com.ankoki.blossom.commands.CommandManager;
+import com.ankoki.blossom.gui.GUIRegistry;
+import com.ankoki.blossom.gui.VirtualGUI;
+import com.ankoki.blossom.listeners.AsyncCompletionHandler;
+import com.ankoki.blossom.listeners.BrigadierHandler;
+import com.ankoki.blossom.listeners.CommandHandler;
 import com.ankoki.blossom.listeners.InventoryHandler;
+import com.ankoki.blossom.listeners.PluginHandler;
 import com.ankoki.blossom.utils.Utils;
 import org.bukkit.plugin.java.JavaPlugin;
 
@@ -21,7 +28,9 @@ public class Blossom extends JavaPlugin {
     public void onEnable() {
         long start = System.currentTimeMillis();
         instance = this;
-        Utils.registerListeners(this, new InventoryHandler());
+        Utils.registerListeners(this, new InventoryHandler(), new PluginHandler(), new CommandHandler());
+        if (CommandManager.isAsyncCompletionSupported()) Utils.registerListeners(this, new AsyncCompletionHandler());
+        if (CommandManager.isBrigadierSupported()) Utils.registerListeners(this, new BrigadierHandler());
         this.getLogger().info(String.format("Blossom v%s has been enabled (%sms)",
                 this.getDescription().getVersion(),
                 System.currentTimeMillis() - start));
@@ -29,6 +38,8 @@ public class Blossom extends JavaPlugin {
 
     @Override
     public void onDisable() {
+        VirtualGUI.closeAll();
+        GUIRegistry.disposeAll();
         instance = null;
     }
 
@@ -0,0 +1,68 @@
+package com.ankoki.blossom.commands;
+
+import java.util.List;
+
+/**
+ * Turns a command token into the type of an {@link com.ankoki.blossom.commands.annotations.Argument}.
+ * <p>
+ * Parsers are looked up once per argument when the command is registered, see
+ * {@link ArgumentParsers}. Parsing happens on every execution, so it should not
+ * throw or build messages for tokens that do not match; the error message is only
+ * asked for when no argument matched. Parsing only happens on the main thread, while
+ * tab completion uses {@link #matches(String)} and {@link #complete(String, List)},
+ * which may be called off the main thread.
+ *
+ * @param <T> the type parsed into.
+ */
+public interface ArgumentParser<T> {
+
+    /**
+     * Parses a token.
+     *
+     * @param token the token, never empty.
+     * @return the parsed value, or null if the token does not match.
+     */
+    T parse(String token);
+
+    /**
+     * Checks if a token looks like something this parser accepts, to find the argument
+     * of each token before the one being completed.
+     * <p>
+     * This may be called off the main thread. By default it parses the token, so a
+     * parser which looks anything up on the server, such as online players or worlds,
+     * must override it with a check that does not.
+     *
+     * @param token the token, never empty.
+     * @return whether or not the token could match.
+     */
+    default boolean matches(String token) {
+        return parse(token) != null;
+    }
+
+    /**
+     * Gets what this parser expects, used in error messages and usage.
+     *
+     * @return a short description, such as "player".
+     */
+    String getName();
+
+    /**
+     * Gets the message to show when a token did not match.
+     *
+     * @param token the token which did not match.
+     * @return the error message.
+     */
+    default String getError(String token) {
+        return "'" + token + "' is not a valid " + getName() + ".";
+    }
+
+    /**
+     * Adds the tokens starting with a prefix which this parser would accept.
+     * <p>
+     * This may be called off the main thread.
+     *
+     * @param prefix what has been typed so far.
+     * @param completions where to add the completions.
+     */
+    default void complete(String prefix, List<String> completions) {}
+}
@@ -0,0 +1,317 @@
+package com.ankoki.blossom.commands;
+
+import com.ankoki.blossom.items.Enchant;
+import com.ankoki.blossom.utils.PrefixTrie;
+import org.apache.commons.lang.Validate;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.World;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.entity.Player;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * The {@link ArgumentParser}s used for each {@link com.ankoki.blossom.commands.annotations.Argument#parameter()}.
+ * <p>
+ * Parsers are included for strings, players, offline players, worlds, materials,
+ * enchantments, numbers, booleans, UUIDs and durations such as {@code 1h30m}. Any
+ * enum, such as {@link Enchant}, is parsed by its constant names, ignoring case.
+ * Other types can be registered by plugins before their commands are registered.
+ */
+@SuppressWarnings("unused")
+public final class ArgumentParsers {
+
+    private static final Map<Class<?>, ArgumentParser<?>> PARSERS = new ConcurrentHashMap<>();
+    private static final PrefixTrie PLAYER_NAMES = new PrefixTrie();
+
+    static {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            PLAYER_NAMES.add(player.getName());
+        }
+        register(String.class, of("text", token -> token));
+        register(Player.class, new ArgumentParser<>() {
+            @Override
+            public Player parse(String token) {
+                return Bukkit.getPlayerExact(token);
+            }
+
+            @Override
+            public boolean matches(String token) {
+                return PLAYER_NAMES.contains(token);
+            }
+
+            @Override
+            public void complete(String prefix, List<String> completions) {
+                PLAYER_NAMES.complete(prefix, completions);
+            }
+
+            @Override
+            public String getName() {
+                return "player";
+            }
+
+            @Override
+            public String getError(String token) {
+                return "No player named '" + token + "' is online.";
+            }
+        });
+        ArgumentParser<UUID> uuid = of("UUID", ArgumentTokens::parseUUID);
+        register(UUID.class, uuid);
+        register(OfflinePlayer.class, new ArgumentParser<>() {
+            @Override
+            public OfflinePlayer parse(String token) {
+                Player online = Bukkit.getPlayerExact(token);
+                if (online != null) return online;
+                OfflinePlayer cached = Bukkit.getOfflinePlayerIfCached(token);
+                if (cached != null) return cached.hasPlayedBefore() ? cached : null;
+                UUID id = uuid.parse(token);
+                if (id == null) return null;
+                OfflinePlayer player = Bukkit.getOfflinePlayer(id);
+                return player.hasPlayedBefore() ? player : null;
+            }
+
+            @Override
+            public boolean matches(String token) {
+                return ArgumentTokens.isPlayerName(token) || uuid.matches(token);
+            }
+
+            @Override
+            public void complete(String prefix, List<String> completions) {
+                PLAYER_NAMES.complete(prefix, completions);
+            }
+
+            @Override
+            public String getName() {
+                return "player";
+            }
+
+            @Override
+            public String getError(String token) {
+                return "No player named '" + token + "' has played before.";
+            }
+        });
+        register(World.class, new ArgumentParser<>() {
+            @Override
+            public World parse(String token) {
+                return Bukkit.getWorld(token);
+            }
+
+            @Override
+            public boolean matches(String token) {
+                return true;
+            }
+
+            @Override
+            public String getName() {
+                return "world";
+            }
+
+            @Override
+            public void complete(String prefix, List<String> completions) {
+                for (World world : Bukkit.getWorlds()) {
+                    if (world.getName().regionMatches(true, 0, prefix, 0, prefix.length())) completions.add(world.getName());
+                }
+            }
+        });
+        PrefixTrie materials = new PrefixTrie();
+        for (Material material : Material.values()) {
+            if (!material.isLegacy()) materials.add(material.name().toLowerCase(Locale.ROOT));
+        }
+        register(Material.class, of("material", Material::matchMaterial, materials));
+        ArgumentParser<Enchant> enchant = ofEnum(Enchant.class, "enchantment");
+        register(Enchant.class, enchant);
+        register(Enchantment.class, new ArgumentParser<>() {
+            @Override
+            public Enchantment parse(String token) {
+                Enchant named = enchant.parse(token);
+                if (named != null) return named.getBukkitEnchantment();
+                NamespacedKey key;
+                try {
+                    key = NamespacedKey.fromString(token.toLowerCase(Locale.ROOT));
+                } catch (IllegalArgumentException ex) {
+                    return null;
+                }
+                return key == null ? null : Enchantment.getByKey(key);
+            }
+
+            @Override
+            public boolean matches(String token) {
+                if (enchant.matches(token)) return true;
+                try {
+                    return NamespacedKey.fromString(token.toLowerCase(Locale.ROOT)) != null;
+                } catch (IllegalArgumentException ex) {
+                    return false;
+                }
+            }
+
+            @Override
+            public String getName() {
+                return "enchantment";
+            }
+
+            @Override
+            public void complete(String prefix, List<String> completions) {
+                enchant.complete(prefix, completions);
+            }
+        });
+        register(Boolean.class, of("true or false", token -> token.equalsIgnoreCase("true") ? Boolean.TRUE
+                : token.equalsIgnoreCase("false") ? Boolean.FALSE : null, PrefixTrie.of(List.of("true", "false"))));
+        register(Integer.class, number("whole number", false, Integer::valueOf));
+        register(Long.class, number("whole number", false, Long::valueOf));
+        register(Short.class, number("whole number", false, Short::valueOf));
+        register(Double.class, number("number", true, Double::valueOf));
+        register(Float.class, number("number", true, Float::valueOf));
+        register(Duration.class, of("duration, such as 1h30m", ArgumentTokens::parseDuration));
+        PARSERS.put(boolean.class, PARSERS.get(Boolean.class));
+        PARSERS.put(int.class, PARSERS.get(Integer.class));
+        PARSERS.put(long.class, PARSERS.get(Long.class));
+        PARSERS.put(short.class, PARSERS.get(Short.class));
+        PARSERS.put(double.class, PARSERS.get(Double.class));
+        PARSERS.put(float.class, PARSERS.get(Float.class));
+    }
+
+    private ArgumentParsers() {}
+
+    /**
+     * Registers the parser of a type, replacing any existing one. Commands which are
+     * already registered keep the parser they were registered with.
+     * <p>
+     * Tab completion may run off the main thread and calls {@link ArgumentParser#matches(String)}
+     * and {@link ArgumentParser#complete(String, List)}, so those must be thread-safe and
+     * must not use the server. By default {@code matches} calls {@code parse}, so parsers
+     * which look anything up on the server must override it.
+     *
+     * @param type the type parsed into.
+     * @param parser the parser.
+     * @param <T> the type parsed into.
+     */
+    public static <T> void register(Class<T> type, ArgumentParser<? extends T> parser) {
+        Validate.notNull(type, "The type cannot be null!");
+        Validate.notNull(parser, "The parser cannot be null!");
+        PARSERS.put(type, parser);
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Forgets every parser of a type, or implemented by a class, from a plugin which is
+     * being disabled.
+     *
+     * @param loader the class loader of the plugin.
+     */
+    static void unregisterAll(ClassLoader loader) {
+        PARSERS.entrySet().removeIf(entry -> entry.getKey().getClassLoader() == loader
+                || entry.getValue().getClass().getClassLoader() == loader);
+    }
+
+    /**
+     * Gets the parser of a type, creating one for enums which do not have one yet.
+     *
+     * @param type the type parsed into.
+     * @param <T> the type parsed into.
+     * @throws IllegalArgumentException if no parser is registered for the type.
+     * @return the parser.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <T> ArgumentParser<T> get(Class<T> type) {
+        ArgumentParser<?> parser = PARSERS.get(type);
+        if (parser == null && type.isEnum()) {
+            parser = PARSERS.computeIfAbsent(type, key -> ofEnum((Class) key, key.getSimpleName().toLowerCase(Locale.ROOT)));
+        }
+        if (parser == null) throw new IllegalArgumentException("No argument parser is registered for " + type.getName());
+        return (ArgumentParser<T>) parser;
+    }
+
+    /**
+     * Gets the names of the online players, kept up to date as players join and quit.
+     *
+     * @return the player names.
+     */
+    public static PrefixTrie getPlayerNames() {
+        return PLAYER_NAMES;
+    }
+
+    /**
+     * Creates a parser from a function, without completions.
+     *
+     * @param name what the parser expects, used in error messages.
+     * @param parser the function, returning null for tokens which do not match.
+     * @param <T> the type parsed into.
+     * @return the parser.
+     */
+    public static <T> ArgumentParser<T> of(String name, Function<String, T> parser) {
+        return of(name, parser, null);
+    }
+
+    /**
+     * Creates a parser from a function.
+     *
+     * @param name what the parser expects, used in error messages.
+     * @param parser the function, returning null for tokens which do not match.
+     * @param completions the tokens to complete, may be null.
+     * @param <T> the type parsed into.
+     * @return the parser.
+     */
+    public static <T> ArgumentParser<T> of(String name, Function<String, T> parser, PrefixTrie completions) {
+        return new ArgumentParser<>() {
+            @Override
+            public T parse(String token) {
+                return parser.apply(token);
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public void complete(String prefix, List<String> list) {
+                if (completions != null) completions.complete(prefix, list);
+            }
+        };
+    }
+
+    /**
+     * Creates a parser matching the names of the constants of an enum, ignoring case.
+     *
+     * @param type the enum.
+     * @param name what the parser expects, used in error messages.
+     * @param <E> the enum.
+     * @return the parser.
+     */
+    public static <E extends Enum<E>> ArgumentParser<E> ofEnum(Class<E> type, String name) {
+        Map<String, E> constants = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        PrefixTrie completions = new PrefixTrie();
+        for (E constant : type.getEnumConstants()) {
+            constants.put(constant.name(), constant);
+            completions.add(constant.name().toLowerCase(Locale.ROOT));
+        }
+        return of(name, constants::get, completions);
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Creates a number parser, which checks the characters of a token before parsing
+     * it so tokens which are not numbers never throw.
+     *
+     * @param name what the parser expects, used in error messages.
+     * @param decimal whether or not a decimal point is allowed.
+     * @param parser the parsing function, which may still throw for out of range numbers.
+     * @param <T> the number type.
+     * @return the parser.
+     */
+    private static <T extends Number> ArgumentParser<T> number(String name, boolean decimal, Function<String, T> parser) {
+        return of(name, token -> ArgumentTokens.parseNumber(token, decimal, parser));
+    }
+}
@@ -0,0 +1,116 @@
+package com.ankoki.blossom.commands;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * INTERNAL USE ONLY
+ * <p>
+ * The checks {@link ArgumentParsers} runs on tokens which do not need the server,
+ * kept apart so they can be used before the server has started.
+ */
+final class ArgumentTokens {
+
+    private ArgumentTokens() {}
+
+    /**
+     * Parses a number, checking the characters of the token first so tokens which
+     * are not numbers never throw.
+     *
+     * @param token the token.
+     * @param decimal whether or not a decimal point is allowed.
+     * @param parser the parsing function, which may still throw for out of range numbers.
+     * @param <T> the number type.
+     * @return the number, or null if the token is not one or is out of range.
+     */
+    static <T extends Number> T parseNumber(String token, boolean decimal, Function<String, T> parser) {
+        boolean digits = false, point = false;
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits = true;
+            } else if (c == '.' && decimal && !point) {
+                point = true;
+            } else if ((c != '-' && c != '+') || i != 0) {
+                return null;
+            }
+        }
+        if (!digits) return null;
+        try {
+            return parser.apply(token);
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks if a token could be the name of a player.
+     *
+     * @param token the token.
+     * @return whether or not the token is 16 or fewer letters, digits and underscores.
+     */
+    static boolean isPlayerName(String token) {
+        if (token.length() > 16) return false;
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '_')) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Parses a UUID with dashes, checking its shape first.
+     *
+     * @param token the token.
+     * @return the UUID, or null if the token is not one.
+     */
+    static UUID parseUUID(String token) {
+        if (token.length() != 36) return null;
+        for (int i = 0; i < 36; i++) {
+            char c = token.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') return null;
+            } else if (Character.digit(c, 16) == -1) {
+                return null;
+            }
+        }
+        return UUID.fromString(token);
+    }
+
+    /**
+     * Parses a duration made of amounts followed by {@code w}, {@code d}, {@code h},
+     * {@code m} or {@code s}, such as {@code 1h30m}. A plain number is in seconds.
+     *
+     * @param token the token.
+     * @return the duration, or null if the token is not one.
+     */
+    static Duration parseDuration(String token) {
+        long seconds = 0, amount = 0;
+        boolean digits = false;
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (amount > Integer.MAX_VALUE) return null;
+                amount = amount * 10 + (c - '0');
+                digits = true;
+                continue;
+            }
+            if (!digits) return null;
+            long unit = switch (Character.toLowerCase(c)) {
+                case 'w' -> 604800;
+                case 'd' -> 86400;
+                case 'h' -> 3600;
+                case 'm' -> 60;
+                case 's' -> 1;
+                default -> -1;
+            };
+            if (unit == -1) return null;
+            seconds += amount * unit;
+            amount = 0;
+            digits = false;
+        }
+        if (digits) seconds += amount;
+        return Duration.ofSeconds(seconds);
+    }
+}
@@ -2,8 +2,9 @@ package com.ankoki.blossom.commands;
 
 import com.ankoki.blossom.commands.annotations.BaseCommand;
 import net.kyori.adventure.text.Component;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
 import org.bukkit.command.PluginCommand;
-import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 import com.ankoki.blossom.commands.CommandManager.CommandUser;
 
@@ -11,15 +12,19 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.List;
+import java.util.logging.Level;
 
 public abstract class BlossomCommand {
 
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+
     private final Class<?> clazz;
     private final Plugin plugin;
     private final String name;
     private String description, permission, permissionMessage;
     private List<String> aliases;
     private CommandUser user;
+    private CommandTree tree;
 
     public BlossomCommand(Class<?> clazz, Plugin plugin, String name, String description, String permission, String permissionMessage, CommandUser user, String... aliases) {
         this.clazz = clazz;
@@ -70,38 +75,13 @@ public abstract class BlossomCommand {
             command.setPermission(permission);
             command.permissionMessage(Component.text(permissionMessage));
             command.setAliases(aliases);
+            CommandTree tree = CommandTree.build(clazz, CommandManager.getInstance(clazz));
+            this.tree = tree;
             command.setExecutor((sender, cmd, alias, args) -> {
-                if (args.length == 0) {
-                    BaseCommand base;
-                    for (Method method : clazz.getDeclaredMethods()) {
-                        method.setAccessible(true);
-                        base = method.getAnnotation(BaseCommand.class);
-                        if (base == null) continue;
-                        if (base.sender() == CommandUser.BOTH || base.sender() == CommandUser.CONSOLE) {
-                            try {
-                                method.invoke(CommandManager.getInstance(clazz), sender);
-                            } catch (ReflectiveOperationException ex) {
-                                try {
-                                    method.invoke(CommandManager.getInstance(clazz), sender, alias);
-                                } catch (ReflectiveOperationException exc) {
-                                    exc.printStackTrace();
-                                }
-                            }
-                        } else if (sender instanceof Player) {
-                            try {
-                                method.invoke(CommandManager.getInstance(clazz), sender);
-                            } catch (ReflectiveOperationException ex) {
-                                try {
-                                    method.invoke(CommandManager.getInstance(clazz), sender, alias);
-                                } catch (ReflectiveOperationException exc) {
-                                    exc.printStackTrace();
-                                }
-                            }
-                        }
-                    }
-                }
+                execute(tree, sender, alias, args);
                 return true;
             });
+            command.setTabCompleter(tree);
             return command;
         } catch (ReflectiveOperationException ex) {
             ex.printStackTrace();
@@ -109,6 +89,73 @@ public abstract class BlossomCommand {
         return null;
     }
 
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Walks the tree of the command along the given arguments, skipping empty ones,
+     * and runs the method of the node it ends on.
+     *
+     * @param tree the tree of the command.
+     * @param sender the sender.
+     * @param alias the alias used.
+     * @param args the arguments given.
+     */
+    private void execute(CommandTree tree, CommandSender sender, String alias, String[] args) {
+        CommandTree.Node node = tree.getRoot();
+        Object[] values = args.length == 0 ? NO_ARGUMENTS : new Object[tree.getDepth()];
+        for (String arg : args) {
+            // Bukkit keeps an empty argument for every extra space.
+            if (arg.isEmpty()) continue;
+            CommandTree.Node next = node.next(arg, values);
+            if (next == null) {
+                sender.sendMessage(ChatColor.RED + node.getError(arg));
+                return;
+            }
+            node = next;
+            if (!node.permits(sender)) {
+                sender.sendMessage(permissionMessage == null || permissionMessage.isEmpty()
+                        ? ChatColor.RED + "You do not have permission to do this." : permissionMessage);
+                return;
+            }
+        }
+        CommandMethod method = node.getMethod(sender);
+        if (method == null) {
+            sender.sendMessage(ChatColor.RED + "You cannot use this command like this.");
+            return;
+        }
+        int arity = node.getArity();
+        invoke(method, sender, alias, values.length == arity ? values : Arrays.copyOf(values, arity));
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Invokes a command method, logging whatever it throws.
+     *
+     * @param method the method.
+     * @param sender the sender.
+     * @param alias the alias used.
+     * @param arguments the parsed arguments.
+     */
+    void invoke(CommandMethod method, CommandSender sender, String alias, Object[] arguments) {
+        try {
+            method.invoke(sender, alias, arguments);
+        } catch (Throwable ex) {
+            plugin.getLogger().log(Level.SEVERE, "An exception occurred while executing /" + alias, ex);
+        }
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Gets the argument tree of the command.
+     *
+     * @return the tree, or null if the command has not been created yet.
+     */
+    CommandTree getTree() {
+        return tree;
+    }
+
     public Plugin getPlugin() {
         return plugin;
     }
@@ -0,0 +1,129 @@
+package com.ankoki.blossom.commands;
+
+import com.destroystokyo.paper.brigadier.BukkitBrigadierCommandSource;
+import com.mojang.brigadier.arguments.ArgumentType;
+import com.mojang.brigadier.arguments.BoolArgumentType;
+import com.mojang.brigadier.arguments.DoubleArgumentType;
+import com.mojang.brigadier.arguments.FloatArgumentType;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.arguments.LongArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.builder.ArgumentBuilder;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.builder.RequiredArgumentBuilder;
+import com.mojang.brigadier.tree.LiteralCommandNode;
+import org.bukkit.command.Command;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * INTERNAL USE ONLY
+ * <p>
+ * Turns the argument tree of a command registered with
+ * {@link CommandManager#registerBrigadierCommand(Class, org.bukkit.plugin.Plugin)} into
+ * Brigadier nodes, which Paper sends to clients.
+ * <p>
+ * Numbers and booleans use Brigadier's own argument types, so the client validates and
+ * highlights them. Every other argument is a single word, the same token the Bukkit
+ * executor splits on spaces, suggested from its {@link ArgumentParser}'s completions.
+ * The nodes only describe the syntax: executing them runs Paper's wrapper of the
+ * Bukkit command, as Paper dispatches player commands through the command map anyway,
+ * so arguments are parsed by the argument tree on the server like any other command.
+ * Only load this class after checking {@link CommandManager#isBrigadierSupported()}.
+ */
+public final class BrigadierCommands {
+
+    private BrigadierCommands() {}
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Creates the Brigadier node of a command, if it was registered for Brigadier.
+     *
+     * @param command the command being registered.
+     * @param label the label it is being registered under.
+     * @param executor Paper's wrapper which runs the Bukkit command.
+     * @param <S> the command source.
+     * @return the node, or null if the command should keep its default node.
+     */
+    public static <S extends BukkitBrigadierCommandSource> LiteralCommandNode<S> createLiteral(Command command, String label,
+                                                                                               com.mojang.brigadier.Command<S> executor) {
+        BlossomCommand blossom = CommandManager.getBrigadierCommand(command);
+        if (blossom == null || blossom.getTree() == null) return null;
+        LiteralArgumentBuilder<S> builder = LiteralArgumentBuilder.<S>literal(label)
+                .requires(source -> command.testPermissionSilent(source.getBukkitSender()));
+        build(builder, blossom.getTree().getRoot(), executor);
+        return builder.build();
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Adds the children of a tree node to its Brigadier builder.
+     *
+     * @param builder the builder of the node.
+     * @param node the tree node.
+     * @param executor Paper's wrapper which runs the Bukkit command.
+     * @param <S> the command source.
+     */
+    private static <S extends BukkitBrigadierCommandSource> void build(ArgumentBuilder<S, ?> builder, CommandTree.Node node,
+                                                                       com.mojang.brigadier.Command<S> executor) {
+        if (node.hasMethods()) builder.executes(executor);
+        for (CommandTree.Node child : node.getLiterals()) {
+            LiteralArgumentBuilder<S> literal = LiteralArgumentBuilder.<S>literal(child.getName().toLowerCase(Locale.ROOT))
+                    .requires(source -> child.permits(source.getBukkitSender()));
+            build(literal, child, executor);
+            builder.then(literal);
+        }
+        for (CommandTree.Node child : node.getParameters()) {
+            ArgumentType<?> type = type(child.getParameter());
+            RequiredArgumentBuilder<S, ?> argument = argument(child.getName(), type);
+            argument.requires(source -> child.permits(source.getBukkitSender()));
+            if (type instanceof StringArgumentType) {
+                argument.suggests((context, suggestions) -> {
+                    List<String> completions = new ArrayList<>();
+                    child.getParser().complete(suggestions.getRemaining(), completions);
+                    completions.forEach(suggestions::suggest);
+                    return suggestions.buildFuture();
+                });
+            }
+            build(argument, child, executor);
+            builder.then(argument);
+        }
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Gets the Brigadier type of an argument.
+     *
+     * @param parameter the type the argument is parsed into.
+     * @return the Brigadier type.
+     */
+    private static ArgumentType<?> type(Class<?> parameter) {
+        if (parameter == Integer.class || parameter == int.class) return IntegerArgumentType.integer();
+        if (parameter == Short.class || parameter == short.class) return IntegerArgumentType.integer(Short.MIN_VALUE, Short.MAX_VALUE);
+        if (parameter == Long.class || parameter == long.class) return LongArgumentType.longArg();
+        if (parameter == Double.class || parameter == double.class) return DoubleArgumentType.doubleArg();
+        if (parameter == Float.class || parameter == float.class) return FloatArgumentType.floatArg();
+        if (parameter == Boolean.class || parameter == boolean.class) return BoolArgumentType.bool();
+        return StringArgumentType.word();
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Creates an argument builder, capturing the type of its argument.
+     *
+     * @param name the name of the argument.
+     * @param type the type of the argument.
+     * @param <S> the command source.
+     * @param <T> the type of the argument.
+     * @return the builder.
+     */
+    private static <S, T> RequiredArgumentBuilder<S, T> argument(String name, ArgumentType<T> type) {
+        return RequiredArgumentBuilder.argument(name, type);
+    }
+}
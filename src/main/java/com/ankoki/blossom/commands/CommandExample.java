@@ -6,6 +6,7 @@ import com.ankoki.blossom.commands.annotations.BaseCommand;
 import com.ankoki.blossom.commands.annotations.CommandInfo;
 import com.ankoki.blossom.commands.CommandManager.CommandUser;
 import com.ankoki.blossom.commands.annotations.SubArgument;
+import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
 // The end goal of this system.
@@ -31,6 +32,11 @@ public class CommandExample {
         sender.sendMessage("Your argument for using /blossom ;player-argument; was " + argument.getName());
     }
 
+    @Argument(name = "version")
+    private void onVersion(CommandSender sender) {
+        sender.sendMessage("Blossom v" + Blossom.getInstance().getDescription().getVersion());
+    }
+
     @SubArgument(name = "nickname-argument",
                 lastArgument = "player-argument",
                 parameter = String.class,
@@ -2,38 +2,194 @@ package com.ankoki.blossom.commands;
 
 import com.ankoki.blossom.commands.annotations.CommandInfo;
 import org.bukkit.Bukkit;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandMap;
+import org.bukkit.command.CommandSender;
 import org.bukkit.command.PluginCommand;
+import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class CommandManager {
 
     private static final Map<Class<?>, Object> instances = new HashMap<>();
+    private static final Map<String, PluginCommand> commands = new ConcurrentHashMap<>();
+
+    private static final Map<Command, BlossomCommand> brigadierCommands = new ConcurrentHashMap<>();
+    private static final boolean BRIGADIER_SUPPORTED = isPresent("com.destroystokyo.paper.event.brigadier.CommandRegisteredEvent");
+    private static final boolean ASYNC_COMPLETION_SUPPORTED = isPresent("com.destroystokyo.paper.event.server.AsyncTabCompleteEvent");
 
     public static void registerCommand(Class<?> clazz, Plugin plugin) {
+        register(clazz, plugin);
+    }
+
+    /**
+     * Registers a command which Paper sends to clients as Brigadier nodes built from its
+     * argument tree, so clients validate, highlight and suggest its arguments themselves.
+     * <p>
+     * Without Paper's Brigadier API, the command is registered like
+     * {@link #registerCommand(Class, Plugin)}. Commands are turned into Brigadier nodes when
+     * Paper syncs them, which happens once plugins have enabled, so this should be called
+     * from onEnable.
+     *
+     * @param clazz the command class, annotated with {@link CommandInfo}.
+     * @param plugin the plugin registering the command.
+     */
+    public static void registerBrigadierCommand(Class<?> clazz, Plugin plugin) {
+        BlossomCommand blossom = register(clazz, plugin);
+        if (BRIGADIER_SUPPORTED) brigadierCommands.put(commands.get(blossom.getName().toLowerCase(Locale.ROOT)), blossom);
+    }
+
+    /**
+     * Unregisters every command of a plugin, done when the plugin is disabled so nothing
+     * keeps its classes loaded and its labels are no longer completed.
+     *
+     * @param plugin the plugin to unregister the commands of.
+     */
+    public static void unregisterAll(Plugin plugin) {
+        List<PluginCommand> removed = new ArrayList<>();
+        commands.values().removeIf(command -> {
+            if (command.getPlugin() != plugin) return false;
+            if (!removed.contains(command)) removed.add(command);
+            return true;
+        });
+        if (removed.isEmpty()) return;
+        CommandMap map = Bukkit.getCommandMap();
+        map.getKnownCommands().values().removeIf(removed::contains);
+        for (PluginCommand command : removed) {
+            command.unregister(map);
+            brigadierCommands.remove(command);
+        }
+        ClassLoader loader = plugin.getClass().getClassLoader();
+        instances.keySet().removeIf(clazz -> clazz.getClassLoader() == loader);
+        ArgumentParsers.unregisterAll(loader);
+    }
+
+    /**
+     * Checks if Paper's Brigadier API is available.
+     *
+     * @return whether or not commands can be registered as Brigadier nodes.
+     */
+    public static boolean isBrigadierSupported() {
+        return BRIGADIER_SUPPORTED;
+    }
+
+    /**
+     * Checks if Paper's asynchronous tab completion event is available.
+     *
+     * @return whether or not commands can be completed off the main thread.
+     */
+    public static boolean isAsyncCompletionSupported() {
+        return ASYNC_COMPLETION_SUPPORTED;
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Checks if a class exists on the server.
+     *
+     * @param name the name of the class.
+     * @return whether or not the class exists.
+     */
+    private static boolean isPresent(String name) {
+        try {
+            Class.forName(name);
+            return true;
+        } catch (ClassNotFoundException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Gets the command registered for Brigadier behind a Bukkit command.
+     *
+     * @param command the Bukkit command.
+     * @return the command, or null if it was not registered for Brigadier.
+     */
+    static BlossomCommand getBrigadierCommand(Command command) {
+        return command == null ? null : brigadierCommands.get(command);
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Creates and registers a command, remembering its labels for completion.
+     *
+     * @param clazz the command class.
+     * @param plugin the plugin registering the command.
+     * @return the created command.
+     */
+    private static BlossomCommand register(Class<?> clazz, Plugin plugin) {
         CommandInfo info = clazz.getAnnotation(CommandInfo.class);
         if (info == null) throw new IllegalArgumentException("You need to register a class with the @CommandInfo annotation");
-        PluginCommand command = BlossomCommand.from(clazz, plugin, info.name())
+        BlossomCommand blossom = BlossomCommand.from(clazz, plugin, info.name())
                 .setDescription(info.description())
                 .setPermission(info.permission())
                 .setPermissionMessage(info.permissionMessage())
-                .setAliases(info.aliases())
-                .createCommand();
+                .setAliases(info.aliases());
+        PluginCommand command = blossom.createCommand();
         Bukkit.getCommandMap().register(info.name(), command);
+        String prefix = info.name().toLowerCase(Locale.ROOT) + ':';
+        for (String label : command.getAliases()) {
+            if (label.isEmpty()) continue;
+            commands.put(label.toLowerCase(Locale.ROOT), command);
+            commands.put(prefix + label.toLowerCase(Locale.ROOT), command);
+        }
+        commands.put(command.getName().toLowerCase(Locale.ROOT), command);
+        commands.put(prefix + command.getName().toLowerCase(Locale.ROOT), command);
+        return blossom;
+    }
+
+    /**
+     * Completes a command line if it belongs to a Blossom command, from its argument tree.
+     * <p>
+     * This can be called off the main thread.
+     *
+     * @param sender who is completing.
+     * @param buffer the command line typed so far, with or without a leading slash.
+     * @return the completions, or null if the line is not a Blossom command with arguments.
+     */
+    public static List<String> complete(CommandSender sender, String buffer) {
+        int start = buffer.startsWith("/") ? 1 : 0;
+        int space = buffer.indexOf(' ', start);
+        if (space == -1) return null;
+        PluginCommand command = commands.get(buffer.substring(start, space).toLowerCase(Locale.ROOT));
+        if (command == null || !(command.getTabCompleter() instanceof CommandTree tree)) return null;
+        if (!command.testPermissionSilent(sender)) return Collections.emptyList();
+        return tree.complete(sender, buffer.substring(space + 1).split(" ", -1));
     }
 
     public static Object getInstance(Class<?> clazz) {
-        try {
-            return instances.containsKey(clazz) ? instances.get(clazz) : clazz.newInstance();
-        } catch (ReflectiveOperationException ex) {
-            ex.printStackTrace();
-            return null;
-        }
+        return instances.computeIfAbsent(clazz, key -> {
+            try {
+                Constructor<?> constructor = key.getDeclaredConstructor();
+                constructor.setAccessible(true);
+                return constructor.newInstance();
+            } catch (ReflectiveOperationException ex) {
+                throw new RuntimeException("Unable to create an instance of the command class " + key.getName(), ex);
+            }
+        });
     }
 
     public enum CommandUser {
         CONSOLE, PLAYER, BOTH;
+
+        public boolean accepts(CommandSender sender) {
+            return switch (this) {
+                case CONSOLE -> !(sender instanceof Player);
+                case PLAYER -> sender instanceof Player;
+                case BOTH -> true;
+            };
+        }
     }
 }
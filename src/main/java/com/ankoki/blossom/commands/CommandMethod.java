@@ -0,0 +1,107 @@
+package com.ankoki.blossom.commands;
+
+import com.ankoki.blossom.commands.CommandManager.CommandUser;
+import org.bukkit.command.CommandSender;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * INTERNAL USE ONLY
+ * <p>
+ * An annotated command method, bound to its command instance once at registration.
+ * <p>
+ * Every method is adapted to the same shape, {@code (CommandSender, String, Object[])},
+ * whether or not it takes the alias, so it can be invoked without any reflection
+ * or guessing of its parameters.
+ */
+final class CommandMethod {
+
+    private static final MethodType SHAPE = MethodType.methodType(void.class, CommandSender.class, String.class, Object[].class);
+
+    /**
+     * Compiles a command method taking a sender, the given amount of parsed arguments
+     * and optionally the alias used.
+     *
+     * @param instance the instance of the command class, ignored for static methods.
+     * @param method the annotated method.
+     * @param arguments the amount of parsed arguments the method takes.
+     * @param user who can use the method.
+     * @throws IllegalArgumentException if the method does not have a valid signature.
+     * @return the compiled method.
+     */
+    static CommandMethod compile(Object instance, Method method, int arguments, CommandUser user) {
+        Class<?>[] parameters = method.getParameterTypes();
+        boolean alias = parameters.length == arguments + 2 && parameters[arguments + 1] == String.class;
+        if (parameters.length == 0 || !CommandSender.class.isAssignableFrom(parameters[0])
+                || (parameters.length != arguments + 1 && !alias)) {
+            throw new IllegalArgumentException("The command method " + method.getName() + " should take a sender, "
+                    + arguments + " argument(s) and optionally the alias used");
+        }
+        try {
+            method.setAccessible(true);
+            MethodHandle handle = MethodHandles.lookup().unreflect(method);
+            if (!Modifier.isStatic(method.getModifiers())) handle = handle.bindTo(instance);
+            if (!alias) handle = MethodHandles.dropArguments(handle, arguments + 1, String.class);
+            // (sender, arguments..., alias) -> (sender, alias, arguments...)
+            int[] order = new int[arguments + 2];
+            order[arguments + 1] = 1;
+            for (int i = 0; i < arguments; i++) {
+                order[i + 1] = i + 2;
+            }
+            Class<?>[] reordered = new Class<?>[arguments + 2];
+            reordered[0] = parameters[0];
+            reordered[1] = String.class;
+            System.arraycopy(parameters, 1, reordered, 2, arguments);
+            handle = MethodHandles.permuteArguments(handle, MethodType.methodType(handle.type().returnType(), reordered), order);
+            handle = handle.asSpreader(2, Object[].class, arguments).asType(SHAPE);
+            return new CommandMethod(handle, parameters[0], user == null ? CommandUser.BOTH : user);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            throw new RuntimeException("Unable to compile the command method " + method.getName(), ex);
+        }
+    }
+
+    private final MethodHandle handle;
+    private final Class<?> senderType;
+    private final CommandUser user;
+
+    private CommandMethod(MethodHandle handle, Class<?> senderType, CommandUser user) {
+        this.handle = handle;
+        this.senderType = senderType;
+        this.user = user;
+    }
+
+    /**
+     * Checks if a sender can use this method.
+     *
+     * @param sender the sender.
+     * @return whether or not the sender is allowed and of the type the method takes.
+     */
+    boolean accepts(CommandSender sender) {
+        return user.accepts(sender) && senderType.isInstance(sender);
+    }
+
+    /**
+     * Invokes the method.
+     *
+     * @param sender the sender, which should be {@link #accepts(CommandSender) accepted}.
+     * @param alias the alias used.
+     * @param arguments the parsed arguments.
+     * @throws Throwable whatever the method throws.
+     */
+    void invoke(CommandSender sender, String alias, Object[] arguments) throws Throwable {
+        handle.invokeExact(sender, alias, arguments);
+    }
+
+    /**
+     * Gets who can use this method.
+     *
+     * @return the command user.
+     */
+    CommandUser getUser() {
+        return user;
+    }
+}
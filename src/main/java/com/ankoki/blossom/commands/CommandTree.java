@@ -0,0 +1,380 @@
+package com.ankoki.blossom.commands;
+
+import com.ankoki.blossom.commands.annotations.Argument;
+import com.ankoki.blossom.commands.annotations.BaseCommand;
+import com.ankoki.blossom.commands.annotations.SubArgument;
+import com.ankoki.blossom.commands.CommandManager.CommandUser;
+import com.ankoki.blossom.utils.PrefixTrie;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * INTERNAL USE ONLY
+ * <p>
+ * The arguments of a command class, built once at registration.
+ * <p>
+ * {@link BaseCommand} methods sit on the root, {@link Argument} methods are its
+ * children and {@link SubArgument} methods are children of the argument named by
+ * {@link SubArgument#lastArgument()}. An argument without a parameter is a literal
+ * matched by its name, any other argument is matched by parsing the token with the
+ * {@link ArgumentParser} resolved for it when the tree is built. Executing
+ * a command walks one node per token, and so does completing one, which only reads
+ * the tree and checks tokens without parsing them so it can be done off the main thread.
+ */
+final class CommandTree implements TabCompleter {
+
+    /**
+     * Builds the tree of a command class.
+     *
+     * @param clazz the command class.
+     * @param instance the instance of the command class.
+     * @throws IllegalArgumentException if an argument is declared twice, its parent
+     * does not exist or its method does not take the right parameters.
+     * @return the built tree.
+     */
+    static CommandTree build(Class<?> clazz, Object instance) {
+        Node root = new Node("", Void.class, null, "");
+        Map<String, Node> nodes = new LinkedHashMap<>();
+        Map<Node, Method> methods = new HashMap<>();
+        Map<Node, String> parents = new HashMap<>();
+        for (Method method : clazz.getDeclaredMethods()) {
+            BaseCommand base = method.getAnnotation(BaseCommand.class);
+            Argument argument = method.getAnnotation(Argument.class);
+            SubArgument sub = method.getAnnotation(SubArgument.class);
+            if (base != null) root.methods.add(CommandMethod.compile(instance, method, 0, base.sender()));
+            Node node = null;
+            if (argument != null) {
+                node = new Node(argument.name(), argument.parameter(), argument.sender(), argument.permisson());
+                parents.put(node, null);
+            } else if (sub != null) {
+                node = new Node(sub.name(), sub.parameter(), sub.sender(), "");
+                parents.put(node, sub.lastArgument());
+            }
+            if (node == null) continue;
+            if (nodes.putIfAbsent(node.name, node) != null) {
+                throw new IllegalArgumentException("The argument " + node.name + " is declared more than once in " + clazz.getName());
+            }
+            methods.put(node, method);
+        }
+        for (Node node : nodes.values()) {
+            String parentName = parents.get(node);
+            Node parent = parentName == null ? root : nodes.get(parentName);
+            if (parent == null) {
+                throw new IllegalArgumentException("The argument " + node.name + " follows " + parentName + ", which does not exist");
+            }
+            node.parent = parent;
+            parent.add(node);
+        }
+        int depth = 0;
+        for (Node node : nodes.values()) {
+            node.arity = arity(node, nodes.size());
+            depth = Math.max(depth, node.arity);
+            node.methods.add(CommandMethod.compile(instance, methods.get(node), node.arity, node.user));
+        }
+        root.sort();
+        return new CommandTree(root, depth);
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Counts the parsed arguments on the path to a node.
+     *
+     * @param node the node.
+     * @param limit the amount of nodes, past which the path must be a loop.
+     * @throws IllegalArgumentException if the node is in a loop.
+     * @return the amount of parsed arguments, including the node's own.
+     */
+    private static int arity(Node node, int limit) {
+        int arity = 0;
+        int steps = 0;
+        for (Node current = node; current.parent != null; current = current.parent) {
+            if (++steps > limit) throw new IllegalArgumentException("The argument " + node.name + " follows itself");
+            if (!current.isLiteral()) arity++;
+        }
+        return arity;
+    }
+
+    private final Node root;
+    private final int depth;
+
+    private CommandTree(Node root, int depth) {
+        this.root = root;
+        this.depth = depth;
+    }
+
+    /**
+     * Gets the root of the tree, holding the base command.
+     *
+     * @return the root node.
+     */
+    Node getRoot() {
+        return root;
+    }
+
+    /**
+     * Gets the most parsed arguments any path takes.
+     *
+     * @return the depth.
+     */
+    int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Completes the last of the given arguments. The arguments before it are only
+     * checked with {@link ArgumentParser#matches(String)}, never parsed, so this can
+     * run off the main thread.
+     *
+     * @param sender who is completing.
+     * @param args the arguments typed so far, any of which may be empty and are then skipped,
+     *             apart from the last one which is completed from nothing.
+     * @return the completions, only including arguments the sender can use.
+     */
+    List<String> complete(CommandSender sender, String[] args) {
+        if (args.length == 0) return Collections.emptyList();
+        Node node = root;
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].isEmpty()) continue;
+            node = node.match(args[i]);
+            if (node == null || !node.permits(sender)) return Collections.emptyList();
+        }
+        List<String> completions = new ArrayList<>();
+        node.complete(sender, args[args.length - 1], completions);
+        return completions;
+    }
+
+    @Override
+    public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+        return complete(sender, args);
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * An argument of a command.
+     */
+    static final class Node {
+
+        private final String name;
+        private final Class<?> parameter;
+        private final CommandUser user;
+        private final String permission;
+        private final ArgumentParser<?> parser;
+        private final List<CommandMethod> methods = new ArrayList<>(1);
+        private final Map<String, Node> literals = new HashMap<>();
+        private final PrefixTrie literalNames = new PrefixTrie();
+        private final List<Node> parameters = new ArrayList<>();
+        private Node parent;
+        private int arity;
+
+        private Node(String name, Class<?> parameter, CommandUser user, String permission) {
+            this.name = name;
+            this.parameter = parameter;
+            this.user = user == null ? CommandUser.BOTH : user;
+            this.permission = permission;
+            this.parser = isLiteral() ? null : ArgumentParsers.get(parameter);
+        }
+
+        /**
+         * INTERNAL USE ONLY
+         * <p>
+         * Adds a child to this node.
+         *
+         * @param child the child.
+         */
+        private void add(Node child) {
+            if (child.isLiteral()) {
+                literals.put(child.name.toLowerCase(Locale.ROOT), child);
+                literalNames.add(child.name);
+            } else {
+                parameters.add(child);
+            }
+        }
+
+        /**
+         * INTERNAL USE ONLY
+         * <p>
+         * Orders the parameters of this node and its children, trying strings last
+         * since they match anything.
+         */
+        private void sort() {
+            parameters.sort(Comparator.<Node, Boolean>comparing(node -> node.parameter == String.class)
+                    .thenComparing(node -> node.name));
+            methods.sort(Comparator.comparing(method -> method.getUser() == CommandUser.BOTH));
+            literals.values().forEach(Node::sort);
+            parameters.forEach(Node::sort);
+        }
+
+        /**
+         * Finds the child matching a token.
+         *
+         * @param token the token.
+         * @param values where to store the parsed value, at the child's arity.
+         * @return the matching child, or null if there is none or the token is empty.
+         */
+        Node next(String token, Object[] values) {
+            if (token.isEmpty()) return null;
+            Node literal = literals.get(token.toLowerCase(Locale.ROOT));
+            if (literal != null) return literal;
+            for (Node child : parameters) {
+                Object value = child.parser.parse(token);
+                if (value == null) continue;
+                values[child.arity - 1] = value;
+                return child;
+            }
+            return null;
+        }
+
+        /**
+         * Finds the child a token looks like, without parsing it.
+         *
+         * @param token the token.
+         * @return the first child whose name or parser matches, or null if there is none.
+         */
+        Node match(String token) {
+            if (token.isEmpty()) return null;
+            Node literal = literals.get(token.toLowerCase(Locale.ROOT));
+            if (literal != null) return literal;
+            for (Node child : parameters) {
+                if (child.parser.matches(token)) return child;
+            }
+            return null;
+        }
+
+        /**
+         * Adds the names of the literal children starting with a prefix, and the
+         * completions of every parsed child, skipping those the sender cannot use.
+         *
+         * @param sender who is completing.
+         * @param prefix what has been typed so far.
+         * @param completions where to add the completions.
+         */
+        void complete(CommandSender sender, String prefix, List<String> completions) {
+            int from = completions.size();
+            literalNames.complete(prefix, completions);
+            completions.subList(from, completions.size()).removeIf(name -> !literals.get(name.toLowerCase(Locale.ROOT)).permits(sender));
+            for (Node child : parameters) {
+                if (child.permits(sender)) child.parser.complete(prefix, completions);
+            }
+        }
+
+        /**
+         * Gets the message to show when no child matched a token.
+         *
+         * @param token the token.
+         * @return the error of the first parsed child, or a generic message.
+         */
+        String getError(String token) {
+            if (parameters.isEmpty()) return "Unknown argument '" + token + "'.";
+            return parameters.get(0).parser.getError(token);
+        }
+
+        /**
+         * Gets the method to run for a sender.
+         *
+         * @param sender the sender.
+         * @return the method, or null if no method accepts the sender.
+         */
+        CommandMethod getMethod(CommandSender sender) {
+            for (CommandMethod method : methods) {
+                if (method.accepts(sender)) return method;
+            }
+            return null;
+        }
+
+        /**
+         * Checks if this node can be executed on its own.
+         *
+         * @return whether or not this node has a method.
+         */
+        boolean hasMethods() {
+            return !methods.isEmpty();
+        }
+
+        /**
+         * Checks if a sender has the permission of this node.
+         *
+         * @param sender the sender.
+         * @return whether or not the sender may use this node.
+         */
+        boolean permits(CommandSender sender) {
+            return permission.isEmpty() || sender.hasPermission(permission);
+        }
+
+        /**
+         * Checks if this node is matched by its name rather than parsed.
+         *
+         * @return whether or not this node is a literal.
+         */
+        boolean isLiteral() {
+            return parameter == Void.class;
+        }
+
+        /**
+         * Gets the literal children of this node.
+         *
+         * @return the literals.
+         */
+        Collection<Node> getLiterals() {
+            return Collections.unmodifiableCollection(literals.values());
+        }
+
+        /**
+         * Gets the parsed children of this node, in the order they are tried.
+         *
+         * @return the parameters.
+         */
+        List<Node> getParameters() {
+            return Collections.unmodifiableList(parameters);
+        }
+
+        /**
+         * Gets the amount of parsed arguments on the path to this node.
+         *
+         * @return the arity.
+         */
+        int getArity() {
+            return arity;
+        }
+
+        /**
+         * Gets the name of this node.
+         *
+         * @return the name.
+         */
+        String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the parser of this node.
+         *
+         * @return the parser, null for literals.
+         */
+        ArgumentParser<?> getParser() {
+            return parser;
+        }
+
+        /**
+         * Gets the type this node parses its token into.
+         *
+         * @return the type, {@link Void} for literals.
+         */
+        Class<?> getParameter() {
+            return parameter;
+        }
+    }
+}
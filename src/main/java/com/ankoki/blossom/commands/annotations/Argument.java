@@ -11,7 +11,7 @@ import java.lang.annotation.Target;
 @Target(ElementType.METHOD)
 public @interface Argument {
     String name();
-    Class<?> parameter();
+    Class<?> parameter() default Void.class;
     String permisson() default "";
     CommandUser sender() default CommandUser.BOTH;
 }
\ No newline at end of file
@@ -12,6 +12,6 @@ import java.lang.annotation.Target;
 public @interface SubArgument {
     String name();
     String lastArgument();
-    Class<?> parameter();
+    Class<?> parameter() default Void.class;
     CommandManager.CommandUser sender() default CommandManager.CommandUser.BOTH;
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.ankoki.blossom.gui;
+
+/**
+ * A click event which runs off the main thread.
+ * <p>
+ * The click is always cancelled, and the handler only sees a snapshot of it. Anything
+ * it wants to change is returned as a {@link ClickResult}, which is applied back on
+ * the main thread.
+ */
+public interface AsyncClickEvent {
+    ClickResult onClick(ClickSnapshot click);
+}
@@ -0,0 +1,76 @@
+package com.ankoki.blossom.gui;
+
+import org.bukkit.event.inventory.InventoryClickEvent;
+
+/**
+ * A click event composed with the middleware around it.
+ * <p>
+ * Chains are built innermost first by the first click after the click events or
+ * middleware of a GUI change, and kept in a table indexed by slot, so a click only
+ * runs the middleware themselves and never looks anything up.
+ */
+final class ClickChain implements ClickEvent {
+
+    /**
+     * The end of the chain of slots without a click event.
+     */
+    static final ClickEvent NONE = event -> {};
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Composes a click event with middleware.
+     *
+     * @param handler the click event of the slot.
+     * @param global the global middleware, outermost first.
+     * @param local the middleware of the GUI, outermost first, may be null.
+     * @return the composed chain.
+     */
+    static ClickChain compose(ClickEvent handler, ClickMiddleware[] global, ClickMiddleware[] local) {
+        ClickEvent chain = handler;
+        if (local != null) {
+            for (int i = local.length - 1; i >= 0; i--) {
+                chain = link(local[i], chain);
+            }
+        }
+        for (int i = global.length - 1; i >= 0; i--) {
+            chain = link(global[i], chain);
+        }
+        return new ClickChain(handler, chain);
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Puts a piece of middleware in front of the rest of a chain.
+     *
+     * @param middleware the middleware.
+     * @param next the rest of the chain.
+     * @return the longer chain.
+     */
+    private static ClickEvent link(ClickMiddleware middleware, ClickEvent next) {
+        return event -> middleware.handle(event, next);
+    }
+
+    private final ClickEvent handler;
+    private final ClickEvent chain;
+
+    private ClickChain(ClickEvent handler, ClickEvent chain) {
+        this.handler = handler;
+        this.chain = chain;
+    }
+
+    /**
+     * Gets the click event at the end of the chain.
+     *
+     * @return the click event of the slot.
+     */
+    ClickEvent getHandler() {
+        return handler;
+    }
+
+    @Override
+    public void onClick(InventoryClickEvent event) {
+        chain.onClick(event);
+    }
+}
@@ -0,0 +1,113 @@
+package com.ankoki.blossom.gui;
+
+import org.apache.commons.lang.Validate;
+
+/**
+ * How fast a player may click in a {@link GUI}.
+ * <p>
+ * Clicks are limited with a token bucket: a player can burst up to {@code burst}
+ * clicks, which refill at {@code clicksPerSecond}. On top of that, any click within
+ * {@code debounceMillis} of the last accepted click is dropped, which stops double
+ * click spam from firing a handler twice.
+ * <p>
+ * Clicks are not limited unless a GUI opts in with {@link GUI#setClickLimit(ClickLimit)}
+ * or a default is set with {@link #setDefault(ClickLimit)}. Only clicks on slots with a
+ * click event bound take a click out of the bucket.
+ */
+public final class ClickLimit {
+
+    /**
+     * Lets every click through.
+     */
+    public static final ClickLimit NONE = new ClickLimit(Integer.MAX_VALUE, Double.POSITIVE_INFINITY, 0L);
+
+    private static volatile ClickLimit defaultLimit = NONE;
+
+    /**
+     * Creates a new click limit.
+     *
+     * @param burst how many clicks can be made in quick succession.
+     * @param clicksPerSecond how many clicks are regained every second.
+     * @param debounceMillis the minimum time between two accepted clicks.
+     * @throws IllegalArgumentException if any value is not positive.
+     * @return the new click limit.
+     */
+    public static ClickLimit of(int burst, double clicksPerSecond, long debounceMillis) {
+        Validate.isTrue(burst > 0, "The burst must be at least 1 click!");
+        Validate.isTrue(clicksPerSecond > 0, "Clicks per second must be positive!");
+        Validate.isTrue(debounceMillis >= 0, "The debounce cannot be negative!");
+        return new ClickLimit(burst, clicksPerSecond, debounceMillis);
+    }
+
+    /**
+     * Gets the limit used by every GUI without its own limit.
+     *
+     * @return the default limit, {@link #NONE} unless changed.
+     */
+    public static ClickLimit getDefault() {
+        return defaultLimit;
+    }
+
+    /**
+     * Sets the limit used by every GUI without its own limit.
+     *
+     * @param limit the new default limit.
+     */
+    public static void setDefault(ClickLimit limit) {
+        Validate.notNull(limit, "The default limit cannot be null, use ClickLimit.NONE instead!");
+        defaultLimit = limit;
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Creates a new ClickLimit.
+     *
+     * @param burst how many clicks can be made in quick succession.
+     * @param clicksPerSecond how many clicks are regained every second.
+     * @param debounceMillis the minimum time between two accepted clicks.
+     */
+    private ClickLimit(int burst, double clicksPerSecond, long debounceMillis) {
+        this.burst = burst;
+        this.nanosPerClick = 1_000_000_000D / clicksPerSecond;
+        this.debounceNanos = debounceMillis * 1_000_000L;
+    }
+
+    private final int burst;
+    private final double nanosPerClick;
+    private final long debounceNanos;
+
+    /**
+     * Tries to take a click out of a player's bucket.
+     *
+     * @param bucket the player's bucket.
+     * @param now the current time, in nanoseconds.
+     * @return whether or not the click is allowed.
+     */
+    public boolean tryClick(Bucket bucket, long now) {
+        if (this == NONE) return true;
+        if (bucket.clicked && now - bucket.lastClick < debounceNanos) return false;
+        double tokens = bucket.refilled
+                ? Math.min(burst, bucket.tokens + (now - bucket.lastRefill) / nanosPerClick)
+                : burst;
+        bucket.refilled = true;
+        bucket.lastRefill = now;
+        if (tokens < 1) {
+            bucket.tokens = tokens;
+            return false;
+        }
+        bucket.tokens = tokens - 1;
+        bucket.clicked = true;
+        bucket.lastClick = now;
+        return true;
+    }
+
+    /**
+     * The click state of one player.
+     */
+    public static final class Bucket {
+        private double tokens;
+        private long lastRefill, lastClick;
+        private boolean refilled, clicked;
+    }
+}
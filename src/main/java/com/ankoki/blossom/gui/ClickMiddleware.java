@@ -0,0 +1,121 @@
+package com.ankoki.blossom.gui;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.Sound;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.InventoryClickEvent;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Logic which runs around the click events of a {@link GUI}.
+ * <p>
+ * Middleware is registered globally through {@link GUI#addGlobalMiddleware(ClickMiddleware)}
+ * or per GUI through {@link GUI#addMiddleware(ClickMiddleware)}. Global middleware runs
+ * first, then the GUI's own, then the click event of the slot. Each piece decides whether
+ * the rest of the chain runs by calling {@code next}. Chains are composed once per click
+ * event, and only composed again after middleware is added or removed.
+ */
+public interface ClickMiddleware {
+
+    /**
+     * Cancels every click before passing it on.
+     *
+     * @return the new middleware.
+     */
+    static ClickMiddleware cancel() {
+        return (event, next) -> {
+            event.setCancelled(true);
+            next.onClick(event);
+        };
+    }
+
+    /**
+     * Only passes on clicks of players with a permission. Other clicks are cancelled.
+     *
+     * @param permission the required permission.
+     * @return the new middleware.
+     */
+    static ClickMiddleware permission(String permission) {
+        return (event, next) -> {
+            if (event.getWhoClicked().hasPermission(permission)) {
+                next.onClick(event);
+            } else {
+                event.setCancelled(true);
+            }
+        };
+    }
+
+    /**
+     * Plays a sound to the player after the click is handled.
+     *
+     * @param sound the sound to play.
+     * @param volume the volume of the sound.
+     * @param pitch the pitch of the sound.
+     * @return the new middleware.
+     */
+    static ClickMiddleware sound(Sound sound, float volume, float pitch) {
+        return (event, next) -> {
+            next.onClick(event);
+            if (event.getWhoClicked() instanceof Player player) player.playSound(player.getLocation(), sound, volume, pitch);
+        };
+    }
+
+    /**
+     * Only passes on a player's click if their last passed click was long enough ago.
+     * Other clicks are cancelled. Every call creates a separate cooldown, which only
+     * remembers players whose cooldown has not run out yet.
+     *
+     * @param millis the cooldown in milliseconds.
+     * @throws IllegalArgumentException if the cooldown is not positive.
+     * @return the new middleware.
+     */
+    static ClickMiddleware cooldown(long millis) {
+        Validate.isTrue(millis > 0, "The cooldown must be positive!");
+        long nanos = TimeUnit.MILLISECONDS.toNanos(millis);
+        Map<UUID, Long> lastClicks = new HashMap<>();
+        int[] pruneAt = {64};
+        return (event, next) -> {
+            long now = System.nanoTime();
+            Long last = lastClicks.get(event.getWhoClicked().getUniqueId());
+            if (last != null && now - last < nanos) {
+                event.setCancelled(true);
+                return;
+            }
+            lastClicks.put(event.getWhoClicked().getUniqueId(), now);
+            // Dropping expired players whenever the map doubles keeps it to the recent clickers.
+            if (lastClicks.size() >= pruneAt[0]) {
+                lastClicks.values().removeIf(time -> now - time >= nanos);
+                pruneAt[0] = Math.max(64, lastClicks.size() * 2);
+            }
+            next.onClick(event);
+        };
+    }
+
+    /**
+     * Logs every click before passing it on.
+     *
+     * @param logger the logger to log to.
+     * @return the new middleware.
+     */
+    static ClickMiddleware log(Logger logger) {
+        return (event, next) -> {
+            GUI gui = GUI.fromInventory(event.getInventory());
+            logger.info(String.format("%s %s clicked slot %s of '%s'", event.getWhoClicked().getName(),
+                    event.getClick(), event.getRawSlot(), gui == null ? "?" : gui.getTitle()));
+            next.onClick(event);
+        };
+    }
+
+    /**
+     * Handles a click.
+     *
+     * @param event the click.
+     * @param next the rest of the chain, which should be called to let the click through.
+     */
+    void handle(InventoryClickEvent event, ClickEvent next);
+}
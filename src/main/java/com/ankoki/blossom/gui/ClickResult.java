@@ -0,0 +1,109 @@
+package com.ankoki.blossom.gui;
+
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * What an {@link AsyncClickEvent} wants done once it finishes.
+ * <p>
+ * Actions are applied on the main thread in the order they were added. Actions on the
+ * player are skipped if they went offline in the meantime, and nothing is applied if
+ * the GUI was disposed.
+ */
+@SuppressWarnings("unused")
+public final class ClickResult {
+
+    /**
+     * Creates a result with no actions.
+     *
+     * @return the new result.
+     */
+    public static ClickResult create() {
+        return new ClickResult();
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Creates a new ClickResult.
+     */
+    private ClickResult() {}
+
+    private final List<Action> actions = new ArrayList<>();
+
+    /**
+     * Sets an item in the GUI.
+     *
+     * @param slot the slot to set.
+     * @param item the item to set.
+     * @return current result for chaining.
+     */
+    public ClickResult setItem(int slot, ItemStack item) {
+        actions.add((gui, player) -> gui.setItem(slot, item));
+        return this;
+    }
+
+    /**
+     * Closes the GUI for the player who clicked, if they still have it open.
+     *
+     * @return current result for chaining.
+     */
+    public ClickResult close() {
+        actions.add((gui, player) -> {
+            if (player != null && gui.getMainInventory().getViewers().contains(player)) player.closeInventory();
+        });
+        return this;
+    }
+
+    /**
+     * Opens another GUI to the player who clicked.
+     *
+     * @param other the GUI to open.
+     * @return current result for chaining.
+     */
+    public ClickResult open(GUI other) {
+        actions.add((gui, player) -> {
+            if (player != null && !other.isDisposed()) other.openFor(player);
+        });
+        return this;
+    }
+
+    /**
+     * Runs any other action on the main thread.
+     *
+     * @param action the action, given the player who clicked.
+     * @return current result for chaining.
+     */
+    public ClickResult then(Consumer<Player> action) {
+        actions.add((gui, player) -> {
+            if (player != null) action.accept(player);
+        });
+        return this;
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Applies every action in order.
+     *
+     * @param gui the clicked GUI.
+     * @param player the player who clicked, or null if they are offline.
+     */
+    void apply(GUI gui, Player player) {
+        for (Action action : actions) {
+            if (gui.isDisposed()) return;
+            action.apply(gui, player);
+        }
+    }
+
+    /**
+     * A single action of a result.
+     */
+    private interface Action {
+        void apply(GUI gui, Player player);
+    }
+}
@@ -0,0 +1,121 @@
+package com.ankoki.blossom.gui;
+
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.UUID;
+
+/**
+ * An immutable copy of an {@link InventoryClickEvent}, safe to read off the main thread.
+ */
+@SuppressWarnings("unused")
+public final class ClickSnapshot {
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Copies a click.
+     *
+     * @param gui the clicked GUI.
+     * @param event the click to copy.
+     * @return the snapshot.
+     */
+    static ClickSnapshot of(GUI gui, InventoryClickEvent event) {
+        return new ClickSnapshot(gui, event.getWhoClicked().getUniqueId(), event.getRawSlot(), event.getClick(),
+                copy(event.getCursor()), copy(event.getCurrentItem()));
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Copies an item, so later changes to the inventory do not show up in the snapshot.
+     *
+     * @param item the item to copy.
+     * @return the copy, or null if there was no item.
+     */
+    private static ItemStack copy(ItemStack item) {
+        return item == null ? null : item.clone();
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Creates a new ClickSnapshot.
+     *
+     * @param gui the clicked GUI.
+     * @param player the unique id of the player who clicked.
+     * @param slot the clicked raw slot.
+     * @param type the type of click.
+     * @param cursor a copy of the cursor item.
+     * @param current a copy of the clicked item.
+     */
+    private ClickSnapshot(GUI gui, UUID player, int slot, ClickType type, ItemStack cursor, ItemStack current) {
+        this.gui = gui;
+        this.player = player;
+        this.slot = slot;
+        this.type = type;
+        this.cursor = cursor;
+        this.current = current;
+    }
+
+    private final GUI gui;
+    private final UUID player;
+    private final int slot;
+    private final ClickType type;
+    private final ItemStack cursor, current;
+
+    /**
+     * Gets the clicked GUI. Its inventory should only be read on the main thread.
+     *
+     * @return the GUI.
+     */
+    public GUI getGUI() {
+        return gui;
+    }
+
+    /**
+     * Gets the unique id of the player who clicked.
+     *
+     * @return the player's unique id.
+     */
+    public UUID getPlayer() {
+        return player;
+    }
+
+    /**
+     * Gets the clicked raw slot.
+     *
+     * @return the raw slot.
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Gets the type of click.
+     *
+     * @return the click type.
+     */
+    public ClickType getClickType() {
+        return type;
+    }
+
+    /**
+     * Gets the item on the player's cursor when they clicked.
+     *
+     * @return a copy of the cursor item, or null if there was none.
+     */
+    public ItemStack getCursor() {
+        return copy(cursor);
+    }
+
+    /**
+     * Gets the item in the clicked slot when they clicked.
+     *
+     * @return a copy of the clicked item, or null if there was none.
+     */
+    public ItemStack getCurrentItem() {
+        return copy(current);
+    }
+}
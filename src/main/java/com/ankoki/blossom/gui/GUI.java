@@ -1,28 +1,74 @@
 package com.ankoki.blossom.gui;
 
+import com.ankoki.blossom.Blossom;
 import com.ankoki.blossom.items.ItemBuilder;
 import com.ankoki.blossom.utils.Chat;
+import com.ankoki.blossom.utils.InventorySimulator;
 import org.apache.commons.lang.Validate;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
+import org.bukkit.entity.HumanEntity;
 import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryType;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.InventoryHolder;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
 
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @SuppressWarnings("unused")
 public class GUI {
 
-    public static final Map<Inventory, Map<Integer, ClickEvent>> ALL_CLICK_EVENTS = new ConcurrentHashMap<>();
-    public static final Map<Inventory, DragEvent> ALL_DRAG_EVENTS = new ConcurrentHashMap<>();
-    public static final Map<Inventory, CloseEvent> ALL_CLOSE_EVENTS = new ConcurrentHashMap<>();
+    private static final Executor ASYNC = task -> Bukkit.getScheduler().runTaskAsynchronously(Blossom.getInstance(), task);
+    private static final Executor SYNC = task -> Bukkit.getScheduler().runTask(Blossom.getInstance(), task);
+    private static final Map<Integer, SlotMask> BORDERS = new ConcurrentHashMap<>();
+    private static final Map<Integer, int[]> PERIMETERS = new ConcurrentHashMap<>();
+    private static volatile ClickMiddleware[] globalMiddleware = new ClickMiddleware[0];
+    private static volatile int middlewareVersion;
+
+    /**
+     * A read-only view of the click events of every live GUI, by inventory and slot.
+     *
+     * @deprecated GUIs keep their own events now, so this map is only a view kept for one
+     * release. Use {@link #fromInventory(Inventory)} and {@link #getClickEvent(int)} instead.
+     */
+    @Deprecated
+    public static final Map<Inventory, Map<Integer, ClickEvent>> ALL_CLICK_EVENTS = new LegacyView<>(GUI::getTopClickEvents);
+    /**
+     * A read-only view of the drag event of every live GUI, by inventory.
+     *
+     * @deprecated GUIs keep their own events now, so this map is only a view kept for one
+     * release. Use {@link #fromInventory(Inventory)} and {@link #getDragEvent()} instead.
+     */
+    @Deprecated
+    public static final Map<Inventory, DragEvent> ALL_DRAG_EVENTS = new LegacyView<>(GUI::getDragEvent);
+    /**
+     * A read-only view of the close event of every live GUI, by inventory.
+     *
+     * @deprecated GUIs keep their own events now, so this map is only a view kept for one
+     * release. Use {@link #fromInventory(Inventory)} and {@link #getCloseEvent()} instead.
+     */
+    @Deprecated
+    public static final Map<Inventory, CloseEvent> ALL_CLOSE_EVENTS = new LegacyView<>(GUI::getCloseEvent);
 
     /**
      * Creates a new GUI.
@@ -34,7 +80,7 @@ public class GUI {
      */
     public static GUI createGUI(String name, int rows) {
         Validate.isTrue(rows <= 6 && rows > 0, "You cannot have less than 1 or more than 6 rows!");
-        return new GUI(Bukkit.createInventory(null, rows * 9, Chat.format(name)));
+        return new GUI(null, rows * 9, Chat.format(name));
     }
 
     /**
@@ -45,7 +91,7 @@ public class GUI {
      * @return newly created GUI.
      */
     public static GUI createGUI(String name, InventoryType type) {
-        return new GUI(Bukkit.createInventory(null, type, Chat.format(name)));
+        return new GUI(null, type, Chat.format(name));
     }
 
     /**
@@ -59,7 +105,7 @@ public class GUI {
      */
     public static GUI createGUI(InventoryHolder holder, String name, int rows) {
         Validate.isTrue(rows <= 6 && rows > 0, "You cannot have less than 1 or more than 6 rows!");
-        return new GUI(Bukkit.createInventory(holder, rows * 9, Chat.format(name)));
+        return new GUI(holder, rows * 9, Chat.format(name));
     }
 
     /**
@@ -71,18 +117,140 @@ public class GUI {
      * @return newly created GUI.
      */
     public static GUI createGUI(InventoryHolder holder, String name, InventoryType type) {
-        return new GUI(Bukkit.createInventory(holder, type, Chat.format(name)));
+        return new GUI(holder, type, Chat.format(name));
+    }
+
+    /**
+     * Creates a new GUI whose inventory is taken from the {@link InventoryPool}, and
+     * returned to it once the GUI is disposed.
+     * <p>
+     * Pooled GUIs are disposable, as they are meant for short-lived menus such as
+     * confirmation dialogs. A pooled GUI must not be used after it is disposed, as its
+     * inventory may already belong to another GUI.
+     *
+     * @param name name of the GUI.
+     * @param rows amount of rows in the GUI.
+     * @throws IllegalArgumentException if rows is greater than 6.
+     * @return newly created GUI.
+     */
+    public static GUI createPooledGUI(String name, int rows) {
+        Validate.isTrue(rows <= 6 && rows > 0, "You cannot have less than 1 or more than 6 rows!");
+        return new GUI(null, InventoryType.CHEST, rows * 9, Chat.format(name), true).setDisposable();
+    }
+
+    /**
+     * Creates a new GUI whose inventory is taken from the {@link InventoryPool}.
+     *
+     * @param name name of the GUI.
+     * @param type the type of inventory to be created.
+     * @return newly created GUI.
+     * @see #createPooledGUI(String, int)
+     */
+    public static GUI createPooledGUI(String name, InventoryType type) {
+        return new GUI(null, type, type.getDefaultSize(), Chat.format(name), true).setDisposable();
+    }
+
+    /**
+     * Adds middleware which runs around the click events of every GUI, after any
+     * global middleware added before it.
+     *
+     * @param middleware the middleware to add.
+     */
+    public static synchronized void addGlobalMiddleware(ClickMiddleware middleware) {
+        Validate.notNull(middleware, "Middleware cannot be null!");
+        ClickMiddleware[] current = globalMiddleware;
+        ClickMiddleware[] added = Arrays.copyOf(current, current.length + 1);
+        added[current.length] = middleware;
+        globalMiddleware = added;
+        middlewareVersion++;
+    }
+
+    /**
+     * Removes global middleware.
+     *
+     * @param middleware the middleware to remove.
+     */
+    public static synchronized void removeGlobalMiddleware(ClickMiddleware middleware) {
+        List<ClickMiddleware> remaining = new ArrayList<>(Arrays.asList(globalMiddleware));
+        if (!remaining.remove(middleware)) return;
+        globalMiddleware = remaining.toArray(new ClickMiddleware[0]);
+        middlewareVersion++;
     }
 
     /**
-     * Checks if an Inventory can hold an ItemStack.
+     * Checks if an Inventory can hold an ItemStack, without adding it.
+     * <p>
+     * To check several items at once, or to add them afterwards, use {@link InventorySimulator}.
      *
      * @param inventory the inventory to check.
      * @param item the item to check.
      * @return whether or not the item fits in the inventory.
      */
     public static boolean canHold(Inventory inventory, ItemStack item) {
-        return inventory.addItem(item).isEmpty();
+        return InventorySimulator.of(inventory).fits(item) >= item.getAmount();
+    }
+
+    /**
+     * Gets the GUI an inventory belongs to.
+     *
+     * @param inventory the inventory to check.
+     * @return the owning GUI, or null if the inventory was not created by a GUI.
+     */
+    public static GUI fromInventory(Inventory inventory) {
+        // Skip the block state snapshot Paper would otherwise take for tile entity holders.
+        return inventory.getHolder(false) instanceof GUIHolder holder ? holder.getGUI() : null;
+    }
+
+    /**
+     * Gets the holder an inventory was created with. The holder of a GUI's inventory is
+     * always a {@link GUIHolder}, so this unwraps it to the holder given to createGUI.
+     *
+     * @param inventory the inventory to check.
+     * @return the holder given when the GUI was created, or the inventory's own holder
+     * if it does not belong to a GUI.
+     */
+    public static InventoryHolder getOwner(Inventory inventory) {
+        InventoryHolder holder = inventory.getHolder(false);
+        return holder instanceof GUIHolder gui ? gui.getOwner() : holder;
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Creates an inventory of a GUI.
+     *
+     * @param holder the holder of the inventory.
+     * @param type the type of the inventory, chests are sized by the given size.
+     * @param size the size of the inventory.
+     * @param title the formatted title of the inventory.
+     * @return the new inventory.
+     */
+    static Inventory createInventory(GUIHolder holder, InventoryType type, int size, String title) {
+        return type == InventoryType.CHEST
+                ? Bukkit.createInventory(holder, size, title)
+                : Bukkit.createInventory(holder, type, title);
+    }
+
+    /**
+     * Creates a new GUI, for use by GUIs built on top of this one.
+     *
+     * @param owner the holder given by the creator, may be null.
+     * @param size the size of the inventory.
+     * @param title the formatted title of the inventory.
+     */
+    protected GUI(InventoryHolder owner, int size, String title) {
+        this(owner, InventoryType.CHEST, size, title, false);
+    }
+
+    /**
+     * Creates a new GUI, for use by GUIs built on top of this one.
+     *
+     * @param owner the holder given by the creator, may be null.
+     * @param type the type of inventory to be created.
+     * @param title the formatted title of the inventory.
+     */
+    protected GUI(InventoryHolder owner, InventoryType type, String title) {
+        this(owner, type, type.getDefaultSize(), title, false);
     }
 
     /**
@@ -90,13 +258,54 @@ public class GUI {
      * <p>
      * Creates a new GUI.
      *
-     * @param inventory inventory builder is based around.
+     * @param owner the holder given by the creator, may be null.
+     * @param type the type of inventory to be created.
+     * @param size the size of the inventory, only used for chests.
+     * @param title the formatted title of the inventory.
+     * @param pooled whether or not the inventory comes from the {@link InventoryPool}.
      */
-    private GUI(Inventory inventory) {
-        this.mainInventory = inventory;
+    GUI(InventoryHolder owner, InventoryType type, int size, String title, boolean pooled) {
+        this.pooled = pooled;
+        this.title = title;
+        this.inventoryTitle = title;
+        this.owner = owner;
+        if (pooled) {
+            this.mainInventory = InventoryPool.acquire(type, size, title);
+            this.holder = (GUIHolder) mainInventory.getHolder(false);
+            holder.bind(this, owner);
+        } else {
+            this.holder = new GUIHolder(this, owner);
+            this.mainInventory = createInventory(holder, type, size, title);
+        }
+        this.clickEvents = new ClickEvent[mainInventory.getSize()];
+        this.registryEntry = GUIRegistry.register(this);
     }
 
-    private final Inventory mainInventory;
+    private final InventoryHolder owner;
+    private final boolean pooled;
+    private GUIHolder holder;
+    private Inventory mainInventory;
+    private String title, inventoryTitle;
+    private boolean retitling;
+    private final ClickEvent[] clickEvents;
+    private final GUIRegistry.Entry registryEntry;
+    private DragEvent dragEvent;
+    private CloseEvent closeEvent;
+    private Lifecycle lifecycle = Lifecycle.WEAK;
+    private Plugin plugin;
+    private boolean disposed;
+    private ItemStack[] pending;
+    private final BitSet dirty = new BitSet();
+    private Map<String, SlotMask> regions;
+    private List<Animation> animations;
+    private ClickLimit clickLimit;
+    private ClickEvent[] bottomClickEvents;
+    private SlotDragEvent[] slotDragEvents;
+    private ClickMiddleware[] middleware;
+    private ClickEvent[] composed;
+    private int composedVersion;
+    private CompletableFuture<Void> asyncClicks = CompletableFuture.completedFuture(null);
+    final HandlerWatchdog.Owner timings = new HandlerWatchdog.Owner();
 
     /**
      * Sets an item at the given slot.
@@ -144,6 +353,77 @@ public class GUI {
         return this;
     }
 
+    /**
+     * Queues a slot to show an item, written on the next tick only if it differs from
+     * what the slot currently shows. Refreshing a slot again before then replaces the
+     * queued item, so each slot is written at most once per tick.
+     * <p>
+     * This is safe to call from any thread.
+     *
+     * @param slot slot to be refreshed.
+     * @param item item the slot should show.
+     * @return current GUI for chaining.
+     */
+    public GUI refresh(int slot, ItemStack item) {
+        Validate.isTrue(slot >= 0 && slot < clickEvents.length, "Slot " + slot + " is outside of the GUI!");
+        boolean queue;
+        synchronized (dirty) {
+            if (pending == null) pending = new ItemStack[clickEvents.length];
+            queue = dirty.isEmpty();
+            pending[slot] = item;
+            dirty.set(slot);
+        }
+        if (queue) RefreshQueue.queue(this);
+        return this;
+    }
+
+    /**
+     * Queues the whole GUI to show a new state, written on the next tick. Only the slots
+     * which differ from what is currently shown are written.
+     * <p>
+     * This is safe to call from any thread.
+     *
+     * @param state the items every slot should show, indexed by slot.
+     * @return current GUI for chaining.
+     */
+    public GUI refresh(ItemStack[] state) {
+        Validate.isTrue(state.length <= clickEvents.length, "The state is larger than the GUI!");
+        boolean queue;
+        synchronized (dirty) {
+            if (pending == null) pending = new ItemStack[clickEvents.length];
+            queue = dirty.isEmpty();
+            System.arraycopy(state, 0, pending, 0, state.length);
+            dirty.set(0, state.length);
+        }
+        if (queue && state.length > 0) RefreshQueue.queue(this);
+        return this;
+    }
+
+    /**
+     * Writes all queued refreshes now, instead of waiting for the next tick.
+     * <p>
+     * This must be called on the main thread.
+     *
+     * @return current GUI for chaining.
+     */
+    public GUI flush() {
+        ItemStack[] items;
+        BitSet slots;
+        synchronized (dirty) {
+            if (dirty.isEmpty()) return this;
+            items = pending.clone();
+            slots = (BitSet) dirty.clone();
+            dirty.clear();
+            Arrays.fill(pending, null);
+        }
+        if (disposed) return this;
+        for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+            ItemStack item = items[slot];
+            if (!isSame(mainInventory.getItem(slot), item)) mainInventory.setItem(slot, item);
+        }
+        return this;
+    }
+
     /**
      * Sets the border slots of an inventory to a given item.
      *
@@ -151,8 +431,10 @@ public class GUI {
      * @return current GUI for chaining.
      */
     public GUI setBorderSlots(ItemStack item) {
-        for (int slot : getBorderSlots(this.mainInventory)) {
-            mainInventory.setItem(slot, item);
+        long bits = getBorderSlots(mainInventory.getType(), mainInventory.getSize()).toLong();
+        while (bits != 0) {
+            mainInventory.setItem(Long.numberOfTrailingZeros(bits), item);
+            bits &= bits - 1;
         }
         return this;
     }
@@ -164,31 +446,174 @@ public class GUI {
      * @return current GUI for chaining.
      */
     public GUI setBorderSlots(Material material) {
-        for (int slot : getBorderSlots(this.mainInventory)) {
-            mainInventory.setItem(slot, new ItemStack(material));
-        }
-        return this;
+        return setBorderSlots(new ItemStack(material));
     }
 
     /**
      * Sets the click event for certain slots, or all if none are given.
+     * <p>
+     * Click events replace whatever was previously set for the same slots, so later
+     * calls take precedence over earlier ones.
      *
      * @param event event to occur when the given slots are clicked.
      * @param slots slots that will be effected by this event. If no slots are given, it is applied to all.
      * @return current GUI for chaining.
      */
     public GUI setClickEvent(ClickEvent event, int... slots) {
-        Map<Integer, ClickEvent> map = ALL_CLICK_EVENTS.containsKey(mainInventory) ? new HashMap<>() : ALL_CLICK_EVENTS.get(mainInventory);
         if (slots.length >= 1) {
             for (int i : slots) {
-                map.put(i, event);
+                Validate.isTrue(i >= 0 && i < clickEvents.length, "Slot " + i + " is outside of the GUI!");
+                clickEvents[i] = event;
             }
         } else {
-            for (int i = 0 ; i < mainInventory.getSize() ; i++) {
-                map.put(i, event);
-            }
+            Arrays.fill(clickEvents, event);
+        }
+        composed = null;
+        return this;
+    }
+
+    /**
+     * Sets the click event for every slot in a mask.
+     * <p>
+     * Click events replace whatever was previously set for the same slots, so later
+     * calls take precedence over earlier ones.
+     *
+     * @param event event to occur when the given slots are clicked.
+     * @param mask slots that will be effected by this event.
+     * @throws IllegalArgumentException if the mask has slots outside of the GUI.
+     * @return current GUI for chaining.
+     */
+    public GUI setClickEvent(ClickEvent event, SlotMask mask) {
+        Validate.isTrue(mask.andNot(SlotMask.all(clickEvents.length)).isEmpty(), "The mask has slots outside of the GUI!");
+        long bits = mask.toLong();
+        while (bits != 0) {
+            clickEvents[Long.numberOfTrailingZeros(bits)] = event;
+            bits &= bits - 1;
+        }
+        composed = null;
+        return this;
+    }
+
+    /**
+     * Sets a click event which runs off the main thread for the given slots.
+     * <p>
+     * Clicks on these slots are always cancelled. Results are applied on the main
+     * thread in the order the slots were clicked, even if a later handler finishes first.
+     *
+     * @param event event to occur when the given slots are clicked, or null to remove it.
+     * @param slots slots that will be effected by this event.
+     *              If no slots are given, all slots will be effected.
+     * @throws IllegalArgumentException if a slot is outside of the GUI.
+     * @return current GUI for chaining.
+     */
+    public GUI setAsyncClickEvent(AsyncClickEvent event, int... slots) {
+        return setClickEvent(event == null ? null : e -> clickAsync(event, e), slots);
+    }
+
+    /**
+     * Sets a click event which runs off the main thread for every slot in a mask.
+     *
+     * @param event event to occur when the given slots are clicked, or null to remove it.
+     * @param mask slots that will be effected by this event.
+     * @throws IllegalArgumentException if the mask has slots outside of the GUI.
+     * @return current GUI for chaining.
+     * @see #setAsyncClickEvent(AsyncClickEvent, int...)
+     */
+    public GUI setAsyncClickEvent(AsyncClickEvent event, SlotMask mask) {
+        return setClickEvent(event == null ? null : e -> clickAsync(event, e), mask);
+    }
+
+    /**
+     * Sets the click event for every slot in a named region.
+     *
+     * @param event event to occur when the given slots are clicked.
+     * @param region the name of the region, as given to {@link #setRegion(String, SlotMask)}.
+     * @throws IllegalArgumentException if no region has the given name.
+     * @return current GUI for chaining.
+     */
+    public GUI setClickEvent(ClickEvent event, String region) {
+        SlotMask mask = getRegion(region);
+        Validate.notNull(mask, "There is no region called '" + region + "'!");
+        return setClickEvent(event, mask);
+    }
+
+    /**
+     * Names a set of slots, so click events can be bound to it by name.
+     *
+     * @param name the name of the region.
+     * @param mask the slots of the region.
+     * @return current GUI for chaining.
+     */
+    public GUI setRegion(String name, SlotMask mask) {
+        if (regions == null) regions = new HashMap<>();
+        regions.put(name, mask);
+        return this;
+    }
+
+    /**
+     * Gets the slots of a named region.
+     *
+     * @param name the name of the region.
+     * @return the slots of the region, or null if there is no such region.
+     */
+    public SlotMask getRegion(String name) {
+        return regions == null ? null : regions.get(name);
+    }
+
+    /**
+     * Sets the click event for the given slots of either the GUI or the viewer's inventory.
+     * <p>
+     * Slots of the viewer's inventory are numbered like {@link org.bukkit.inventory.PlayerInventory},
+     * so 0 to 8 is the hotbar and 9 to 35 the rest. Clicks in the viewer's inventory never
+     * reach the events of the GUI's own slots.
+     *
+     * @param event event to occur when the given slots are clicked.
+     * @param section which inventory the slots belong to.
+     * @param slots slots that will be effected by this event.
+     *              If no slots are given, all slots of the section will be effected.
+     * @throws IllegalArgumentException if a slot is outside of the section.
+     * @return current GUI for chaining.
+     */
+    public GUI setClickEvent(ClickEvent event, Section section, int... slots) {
+        if (section == Section.TOP) return setClickEvent(event, slots);
+        if (bottomClickEvents == null) bottomClickEvents = new ClickEvent[Section.BOTTOM_SIZE];
+        bind(bottomClickEvents, 0, Section.BOTTOM_SIZE, event, slots);
+        composed = null;
+        return this;
+    }
+
+    /**
+     * Adds middleware which runs around every click event of this GUI, after any
+     * global middleware and middleware added before it.
+     *
+     * @param middleware the middleware to add.
+     * @return current GUI for chaining.
+     * @see ClickMiddleware
+     */
+    public GUI addMiddleware(ClickMiddleware middleware) {
+        Validate.notNull(middleware, "Middleware cannot be null!");
+        if (this.middleware == null) {
+            this.middleware = new ClickMiddleware[]{middleware};
+        } else {
+            this.middleware = Arrays.copyOf(this.middleware, this.middleware.length + 1);
+            this.middleware[this.middleware.length - 1] = middleware;
         }
-        ALL_CLICK_EVENTS.put(mainInventory, map);
+        composed = null;
+        return this;
+    }
+
+    /**
+     * Removes middleware of this GUI.
+     *
+     * @param middleware the middleware to remove.
+     * @return current GUI for chaining.
+     */
+    public GUI removeMiddleware(ClickMiddleware middleware) {
+        if (this.middleware == null) return this;
+        List<ClickMiddleware> remaining = new ArrayList<>(Arrays.asList(this.middleware));
+        if (!remaining.remove(middleware)) return this;
+        this.middleware = remaining.isEmpty() ? null : remaining.toArray(new ClickMiddleware[0]);
+        composed = null;
         return this;
     }
 
@@ -199,7 +624,31 @@ public class GUI {
      * @return current GUI for chaining.
      */
     public GUI setDragEvent(DragEvent event) {
-        ALL_DRAG_EVENTS.put(mainInventory, event);
+        this.dragEvent = event;
+        return this;
+    }
+
+    /**
+     * Sets a drag event for the given slots of either the GUI or the viewer's inventory.
+     * <p>
+     * The event is called once for every dragged slot it is bound to, and never for
+     * drags which only cover other slots. The drag event for all slots still runs first.
+     *
+     * @param event event to occur when the given slots are dragged over.
+     * @param section which inventory the slots belong to.
+     * @param slots slots that will be effected by this event.
+     *              If no slots are given, all slots of the section will be effected.
+     * @throws IllegalArgumentException if a slot is outside of the section.
+     * @return current GUI for chaining.
+     * @see #setClickEvent(ClickEvent, Section, int...)
+     */
+    public GUI setDragEvent(SlotDragEvent event, Section section, int... slots) {
+        if (slotDragEvents == null) slotDragEvents = new SlotDragEvent[clickEvents.length + Section.BOTTOM_SIZE];
+        if (section == Section.TOP) {
+            bind(slotDragEvents, 0, clickEvents.length, event, slots);
+        } else {
+            bind(slotDragEvents, clickEvents.length, Section.BOTTOM_SIZE, event, slots);
+        }
         return this;
     }
 
@@ -210,19 +659,274 @@ public class GUI {
      * @return current GUI for chaining.
      */
     public GUI setCloseEvent(CloseEvent event) {
-        ALL_CLOSE_EVENTS.put(mainInventory, event);
+        this.closeEvent = event;
+        return this;
+    }
+
+    /**
+     * Changes the title of the GUI.
+     * <p>
+     * Inventory titles cannot be changed, so this moves the contents into a new
+     * inventory and reopens it for every viewer, keeping the item on their cursor.
+     * For titles which change often, use {@link #updateTitle(String)} instead.
+     *
+     * @param title the new title.
+     * @return current GUI for chaining.
+     */
+    public GUI setTitle(String title) {
+        setFormattedTitle(Chat.format(title));
+        return this;
+    }
+
+    /**
+     * Changes the title of the GUI for every viewer without reopening it.
+     * <p>
+     * The open window packet is sent again with the new title, followed by the contents,
+     * so the inventory and the item on the viewers' cursor are kept. Players who open
+     * the GUI later through {@link #openFor(Player...)} also see the new title. If the
+     * server does not support this, it falls back to {@link #setTitle(String)}.
+     *
+     * @param title the new title.
+     * @return current GUI for chaining.
+     */
+    public GUI updateTitle(String title) {
+        updateFormattedTitle(Chat.format(title));
+        return this;
+    }
+
+    /**
+     * Adds an animation to the GUI, which plays whenever the GUI is viewed.
+     *
+     * @param animation the animation to add.
+     * @return current GUI for chaining.
+     */
+    public GUI addAnimation(GUIAnimation animation) {
+        if (animations == null) animations = new ArrayList<>();
+        animations.add(new Animation(animation));
+        GUIAnimator.add(this);
+        return this;
+    }
+
+    /**
+     * Removes an animation from the GUI, leaving its current frame in place.
+     *
+     * @param animation the animation to remove.
+     * @return current GUI for chaining.
+     */
+    public GUI removeAnimation(GUIAnimation animation) {
+        if (animations == null) return this;
+        animations.removeIf(playing -> playing.animation == animation);
+        if (animations.isEmpty()) clearAnimations();
+        return this;
+    }
+
+    /**
+     * Removes every animation from the GUI, leaving their current frames in place.
+     *
+     * @return current GUI for chaining.
+     */
+    public GUI clearAnimations() {
+        if (animations == null) return this;
+        animations = null;
+        GUIAnimator.remove(this);
+        return this;
+    }
+
+    /**
+     * Sets how fast players may click in this GUI, instead of the default limit.
+     * Only clicks on slots with a click event bound count towards the limit.
+     *
+     * @param limit the click limit, or null to use {@link ClickLimit#getDefault()}.
+     * @return current GUI for chaining.
+     */
+    public GUI setClickLimit(ClickLimit limit) {
+        this.clickLimit = limit;
         return this;
     }
 
+    /**
+     * Marks the GUI as disposable, releasing it once its last viewer closes it.
+     *
+     * @return current GUI for chaining.
+     */
+    public GUI setDisposable() {
+        GUIRegistry.release(this);
+        this.lifecycle = Lifecycle.DISPOSABLE;
+        this.plugin = null;
+        return this;
+    }
+
+    /**
+     * Marks the GUI as persistent, keeping it alive until its owning plugin disables.
+     *
+     * @param plugin the plugin which owns this GUI.
+     * @throws IllegalArgumentException if the plugin is not enabled.
+     * @return current GUI for chaining.
+     */
+    public GUI setPersistent(Plugin plugin) {
+        Validate.isTrue(plugin != null && plugin.isEnabled(), "A persistent GUI needs an enabled plugin!");
+        GUIRegistry.release(this);
+        this.lifecycle = Lifecycle.PERSISTENT;
+        this.plugin = plugin;
+        GUIRegistry.retain(this, plugin);
+        return this;
+    }
+
+    /**
+     * Releases the GUI, closing it for all viewers and dropping its items and events.
+     * <p>
+     * A disposed GUI should not be opened again.
+     */
+    public void dispose() {
+        if (disposed) return;
+        disposed = true;
+        for (HumanEntity viewer : new ArrayList<>(mainInventory.getViewers())) {
+            viewer.closeInventory();
+        }
+        Arrays.fill(clickEvents, null);
+        bottomClickEvents = null;
+        slotDragEvents = null;
+        middleware = null;
+        composed = null;
+        dragEvent = null;
+        closeEvent = null;
+        clearAnimations();
+        mainInventory.clear();
+        if (pooled) InventoryPool.release(mainInventory, inventoryTitle);
+        GUIRegistry.unregister(this, registryEntry);
+    }
+
     /**
      * Opens the GUI to a player.
      *
      * @param players the players to open the GUI to.
      */
     public void openFor(Player... players) {
+        boolean retitled = !title.equals(inventoryTitle);
         for (Player player : players) {
             player.openInventory(mainInventory);
+            if (retitled && isViewing(player)) TitleUpdater.update(player, title);
+        }
+    }
+
+    /**
+     * Opens the GUI to many players, spread over as many ticks as needed to stay within
+     * a budget, starting on the next tick.
+     * <p>
+     * Players who log off before their turn are skipped, and nobody else is opened to
+     * once the GUI is disposed. If opening the GUI to a player fails, the error is logged
+     * and the rest of the players are still opened to.
+     *
+     * @param maxPerTick the most players to open the GUI to each tick, 0 for no limit.
+     * @param maxMicrosPerTick the most microseconds to spend opening each tick, 0 for no limit.
+     * @param players the players to open the GUI to.
+     * @throws IllegalArgumentException if a budget is negative.
+     * @return a future completed with the amount of players the GUI was opened to.
+     */
+    public CompletableFuture<Integer> openSpread(int maxPerTick, long maxMicrosPerTick, Player... players) {
+        return spread(maxPerTick, maxMicrosPerTick, players).getFuture();
+    }
+
+    /**
+     * Opens the GUI to many players like {@link #openSpread(int, long, Player...)}, giving
+     * each player their own future.
+     *
+     * @param maxPerTick the most players to open the GUI to each tick, 0 for no limit.
+     * @param maxMicrosPerTick the most microseconds to spend opening each tick, 0 for no limit.
+     * @param players the players to open the GUI to.
+     * @throws IllegalArgumentException if a budget is negative.
+     * @return the future of each player by their UUID, completed with whether or not the GUI
+     * was opened to them, or exceptionally if opening it to them failed.
+     */
+    public Map<UUID, CompletableFuture<Boolean>> openSpreadEach(int maxPerTick, long maxMicrosPerTick, Player... players) {
+        return spread(maxPerTick, maxMicrosPerTick, players).getPlayerFutures();
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Starts opening the GUI to many players over as many ticks as needed.
+     *
+     * @param maxPerTick the most players to open the GUI to each tick, 0 for no limit.
+     * @param maxMicrosPerTick the most microseconds to spend opening each tick, 0 for no limit.
+     * @param players the players to open the GUI to.
+     * @return the started task.
+     */
+    private SpreadOpen spread(int maxPerTick, long maxMicrosPerTick, Player... players) {
+        Validate.isTrue(maxPerTick >= 0 && maxMicrosPerTick >= 0, "A budget cannot be negative!");
+        SpreadOpen open = new SpreadOpen(this, maxPerTick, maxMicrosPerTick, players);
+        open.runTaskTimer(Blossom.getInstance(), 0L, 1L);
+        return open;
+    }
+
+    /**
+     * Opens the GUI to players straight away, showing a placeholder in every empty slot
+     * while the real contents are built off the main thread.
+     * <p>
+     * Once built, the contents are applied on the main thread in one pass. Non-null items
+     * replace whatever is in their slot, and placeholders without an item are emptied.
+     * If the GUI was disposed in the meantime, for example because every viewer closed a
+     * disposable GUI, the contents are dropped. If building the contents fails, the error
+     * is logged and the placeholders are emptied.
+     *
+     * @param contents builds the contents, indexed by slot. Called off the main thread.
+     * @param placeholder the item to show while the contents are built.
+     * @param players the players to open the GUI to.
+     * @return a future completed with this GUI once the contents have been applied, or
+     * completed exceptionally if they could not be built.
+     */
+    public CompletableFuture<GUI> openAsync(Supplier<ItemStack[]> contents, ItemStack placeholder, Player... players) {
+        ItemStack[] current = mainInventory.getContents();
+        BitSet placeholders = new BitSet(current.length);
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] != null) continue;
+            current[i] = placeholder;
+            placeholders.set(i);
         }
+        mainInventory.setContents(current);
+        openFor(players);
+        return CompletableFuture.supplyAsync(contents, ASYNC).handleAsync((items, ex) -> {
+            if (ex != null) HandlerWatchdog.failed(this, "async contents", contents, ex);
+            if (!disposed) {
+                // Without contents, the placeholders are still emptied rather than left forever.
+                ItemStack[] built = ex == null && items != null ? items : new ItemStack[0];
+                ItemStack[] loaded = mainInventory.getContents();
+                for (int i = 0; i < loaded.length; i++) {
+                    ItemStack item = i < built.length ? built[i] : null;
+                    if (item != null || placeholders.get(i)) loaded[i] = item;
+                }
+                mainInventory.setContents(loaded);
+            }
+            if (ex != null) throw ex instanceof CompletionException completion ? completion : new CompletionException(ex);
+            return this;
+        }, SYNC);
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Cancels a click and hands a snapshot of it to an async click event, queueing
+     * its result behind the results of earlier clicks.
+     *
+     * @param event the async click event.
+     * @param e the click.
+     */
+    private void clickAsync(AsyncClickEvent event, InventoryClickEvent e) {
+        e.setCancelled(true);
+        ClickSnapshot click = ClickSnapshot.of(this, e);
+        CompletableFuture<ClickResult> result = CompletableFuture.supplyAsync(() -> HandlerWatchdog.clickAsync(this, event, click), ASYNC)
+                .exceptionally(ex -> {
+                    HandlerWatchdog.failed(this, "async click", event, ex);
+                    return null;
+                });
+        // Every stage recovers, so one failed click never stops the results of later clicks.
+        asyncClicks = asyncClicks.<ClickResult, Void>thenCombineAsync(result, (previous, done) -> {
+            if (done != null && !disposed) HandlerWatchdog.apply(this, event, done, Bukkit.getPlayer(click.getPlayer()));
+            return null;
+        }, SYNC).exceptionally(ex -> {
+            HandlerWatchdog.failed(this, "async click result", event, ex);
+            return null;
+        });
     }
 
     /**
@@ -237,38 +941,516 @@ public class GUI {
     /**
      * INTERNAL USE ONLY
      * <p>
-     * Retrieves the border slots of an inventory.
+     * Composes the click event of every slot with all middleware into a table indexed
+     * by raw slot, with one extra entry for clicks outside of both inventories. Slots
+     * without a click event still run the middleware when there is any.
+     * <p>
+     * Changing click events or middleware only drops the table, so it is composed once
+     * by the next click however many changes were made.
+     *
+     * @return the composed table.
+     */
+    private ClickEvent[] recompose() {
+        ClickMiddleware[] global = globalMiddleware;
+        int version = middlewareVersion;
+        int top = clickEvents.length;
+        ClickEvent[] table = new ClickEvent[top + Section.BOTTOM_SIZE + 1];
+        boolean wrapped = global.length > 0 || middleware != null;
+        ClickEvent empty = wrapped ? ClickChain.compose(ClickChain.NONE, global, middleware) : null;
+        Map<ClickEvent, ClickEvent> chains = new IdentityHashMap<>();
+        for (int i = 0; i < table.length; i++) {
+            ClickEvent event = null;
+            if (i < top) {
+                event = clickEvents[i];
+            } else if (bottomClickEvents != null && i < top + Section.BOTTOM_SIZE) {
+                event = bottomClickEvents[toBottomSlot(i)];
+            }
+            if (event == null) {
+                table[i] = empty;
+            } else {
+                table[i] = wrapped ? chains.computeIfAbsent(event, key -> ClickChain.compose(key, global, middleware)) : event;
+            }
+        }
+        this.composed = table;
+        this.composedVersion = version;
+        return table;
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Converts a raw slot below the GUI into a slot of the viewer's inventory.
+     *
+     * @param rawSlot the raw slot.
+     * @return the slot of the viewer's inventory, or -1 if it is outside of it.
+     */
+    private int toBottomSlot(int rawSlot) {
+        int index = rawSlot - clickEvents.length;
+        if (index < 0 || index >= Section.BOTTOM_SIZE) return -1;
+        // The view shows the main inventory before the hotbar.
+        return index < 27 ? index + 9 : index - 27;
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Binds an event to slots of part of a table.
+     *
+     * @param table the table of events.
+     * @param offset where the part starts in the table.
+     * @param length the length of the part.
+     * @param event the event to bind.
+     * @param slots the slots to bind relative to the part, or none for the whole part.
+     */
+    private static <T> void bind(T[] table, int offset, int length, T event, int... slots) {
+        if (slots.length == 0) {
+            Arrays.fill(table, offset, offset + length, event);
+            return;
+        }
+        for (int i : slots) {
+            Validate.isTrue(i >= 0 && i < length, "Slot " + i + " is outside of the inventory!");
+            table[offset + i] = event;
+        }
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Replaces every click event of the GUI at once.
+     *
+     * @param events the click events, indexed by slot.
+     */
+    void setClickEvents(ClickEvent[] events) {
+        System.arraycopy(events, 0, clickEvents, 0, Math.min(events.length, clickEvents.length));
+        composed = null;
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Changes the title of the GUI to an already formatted title.
+     *
+     * @param title the formatted title.
+     */
+    void setFormattedTitle(String title) {
+        Inventory previous = mainInventory;
+        String previousTitle = inventoryTitle;
+        Inventory inventory;
+        if (pooled) {
+            inventory = InventoryPool.acquire(previous.getType(), previous.getSize(), title);
+            this.holder = (GUIHolder) inventory.getHolder(false);
+            holder.bind(this, owner);
+        } else {
+            inventory = createInventory(holder, previous.getType(), previous.getSize(), title);
+        }
+        inventory.setContents(previous.getContents());
+        this.mainInventory = inventory;
+        this.title = title;
+        this.inventoryTitle = title;
+        List<HumanEntity> viewers = new ArrayList<>(previous.getViewers());
+        retitling = true;
+        try {
+            for (HumanEntity viewer : viewers) {
+                ItemStack cursor = viewer.getItemOnCursor();
+                viewer.setItemOnCursor(null);
+                viewer.openInventory(inventory);
+                viewer.setItemOnCursor(cursor);
+            }
+        } finally {
+            retitling = false;
+        }
+        if (pooled) InventoryPool.release(previous, previousTitle);
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Changes the title for every viewer by resending the open window packet, or by
+     * reopening the inventory if the server does not support it.
+     *
+     * @param title the formatted title.
+     */
+    void updateFormattedTitle(String title) {
+        if (title.equals(this.title)) return;
+        if (!TitleUpdater.isSupported()) {
+            setFormattedTitle(title);
+            return;
+        }
+        this.title = title;
+        for (HumanEntity viewer : mainInventory.getViewers()) {
+            if (viewer instanceof Player player && isViewing(player)) TitleUpdater.update(player, title);
+        }
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Checks if a player has this GUI open as their top inventory.
+     *
+     * @param player the player to check.
+     * @return whether or not the player is viewing the GUI.
+     */
+    private boolean isViewing(Player player) {
+        return player.getOpenInventory().getTopInventory() == mainInventory;
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Advances every animation of the GUI, applying those whose frame changed.
+     *
+     * @param tick the current animation tick.
+     */
+    void animate(long tick) {
+        if (animations == null) return;
+        for (Animation playing : animations.toArray(new Animation[0])) {
+            int frames = playing.animation.getFrameCount(this);
+            int frame = (int) ((tick / playing.animation.getInterval()) % frames);
+            if (frame == playing.frame) continue;
+            playing.animation.apply(this, frame, playing.frame < frames ? playing.frame : -1);
+            playing.frame = frame;
+        }
+    }
+
+    /**
+     * Gets the formatted title of the GUI.
+     *
+     * @return the title.
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Checks if the GUI is currently moving its viewers into a retitled inventory.
+     * Close events fired while this is true are not real closes.
+     *
+     * @return whether or not the GUI is being retitled.
+     */
+    public boolean isRetitling() {
+        return retitling;
+    }
+
+    /**
+     * Gets how fast players may click in this GUI.
+     *
+     * @return the click limit of the GUI, or the default limit if it has none.
+     */
+    public ClickLimit getClickLimit() {
+        return clickLimit == null ? ClickLimit.getDefault() : clickLimit;
+    }
+
+    /**
+     * Gets the lifecycle of the GUI.
+     *
+     * @return the lifecycle.
+     */
+    public Lifecycle getLifecycle() {
+        return lifecycle;
+    }
+
+    /**
+     * Gets the plugin which owns this GUI.
+     *
+     * @return the owning plugin, or null if the GUI is not persistent.
+     */
+    public Plugin getPlugin() {
+        return plugin;
+    }
+
+    /**
+     * Checks if the GUI's inventory comes from the {@link InventoryPool}.
+     *
+     * @return whether or not the GUI is pooled.
+     */
+    public boolean isPooled() {
+        return pooled;
+    }
+
+    /**
+     * Checks if the GUI has been disposed.
+     *
+     * @return whether or not the GUI has been disposed.
+     */
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    /**
+     * Gets the holder of the main inventory.
+     *
+     * @return the GUI's holder.
+     */
+    public GUIHolder getHolder() {
+        return holder;
+    }
+
+    /**
+     * Gets the click event of a raw slot, in either the GUI or the viewer's inventory,
+     * composed with all middleware.
+     * <p>
+     * When there is middleware, every slot has a click event, ending in nothing for
+     * slots without one bound, so middleware sees every click.
+     *
+     * @param rawSlot the raw slot that was clicked.
+     * @return the click event, or null if none is bound and there is no middleware.
+     */
+    public ClickEvent getClickEvent(int rawSlot) {
+        ClickEvent[] table = composed;
+        if (table == null || composedVersion != middlewareVersion) table = recompose();
+        return table[rawSlot >= 0 && rawSlot < table.length - 1 ? rawSlot : table.length - 1];
+    }
+
+    /**
+     * Checks if a click event is bound to a raw slot, regardless of middleware.
+     *
+     * @param rawSlot the raw slot.
+     * @return whether or not a click event is bound to the slot.
+     */
+    public boolean hasClickEvent(int rawSlot) {
+        if (rawSlot >= 0 && rawSlot < clickEvents.length) return clickEvents[rawSlot] != null;
+        int slot = toBottomSlot(rawSlot);
+        return slot != -1 && bottomClickEvents != null && bottomClickEvents[slot] != null;
+    }
+
+    /**
+     * Gets the drag event bound to a raw slot.
+     *
+     * @param rawSlot the raw slot that was dragged over.
+     * @return the drag event, or null if none is bound.
+     */
+    public SlotDragEvent getSlotDragEvent(int rawSlot) {
+        if (slotDragEvents == null || rawSlot < 0) return null;
+        if (rawSlot < clickEvents.length) return slotDragEvents[rawSlot];
+        int slot = toBottomSlot(rawSlot);
+        return slot == -1 ? null : slotDragEvents[clickEvents.length + slot];
+    }
+
+    /**
+     * Checks if any slot has its own drag event.
+     *
+     * @return whether or not a slot drag event is bound.
+     */
+    public boolean hasSlotDragEvents() {
+        return slotDragEvents != null;
+    }
+
+    /**
+     * Gets the drag event of the GUI.
+     *
+     * @return the drag event, or null if none is set.
+     */
+    public DragEvent getDragEvent() {
+        return dragEvent;
+    }
+
+    /**
+     * Gets the close event of the GUI.
+     *
+     * @return the close event, or null if none is set.
+     */
+    public CloseEvent getCloseEvent() {
+        return closeEvent;
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Checks if two items would look the same in a slot, treating air as empty.
+     *
+     * @param current the item currently in the slot.
+     * @param item the item to compare to.
+     * @return whether or not writing the item would change the slot.
+     */
+    private static boolean isSame(ItemStack current, ItemStack item) {
+        boolean currentEmpty = current == null || current.getType().isAir();
+        boolean itemEmpty = item == null || item.getType().isAir();
+        if (currentEmpty || itemEmpty) return currentEmpty == itemEmpty;
+        return current.equals(item);
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Retrieves the border slots of an inventory, computed once per type and size.
+     *
+     * @param type the type of the inventory.
+     * @param size the size of the inventory.
+     * @return all slots that are on the border.
+     */
+    static SlotMask getBorderSlots(InventoryType type, int size) {
+        return BORDERS.computeIfAbsent(type.ordinal() << 8 | size, key -> computeBorderSlots(type, size));
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Computes the border slots of an inventory.
      *
-     * @param inventory the inventory to get slots from.
+     * @param type the type of the inventory.
+     * @param size the size of the inventory.
      * @return all slots that are on the border.
      */
-    private List<Integer> getBorderSlots(Inventory inventory) {
-        List<Integer> slotsList = new ArrayList<>();
-        InventoryType type = inventory.getType();
-        int rows = 0;
+    private static SlotMask computeBorderSlots(InventoryType type, int size) {
+        int slotsPerRow = 0;
         if (type == InventoryType.CHEST ||
                 type == InventoryType.ENDER_CHEST ||
                 type == InventoryType.SHULKER_BOX ||
-                type == InventoryType.BARREL) rows = inventory.getSize() / 9;
+                type == InventoryType.BARREL) slotsPerRow = 9;
         if (type == InventoryType.DISPENSER ||
-                type == InventoryType.DROPPER) rows = 3;
-        if (type == InventoryType.HOPPER) return List.of(0, 4);
-        if (rows == 0) return List.of();
-        int slots = inventory.getSize();
-        int slotsPerRow = slots / rows;
-        for (int i = 1; i <= rows; i++) {
-            slotsList.add(slotsPerRow * (i - 1));
-            slotsList.add((slotsPerRow * (i - 1)) + (slotsPerRow - 1));
+                type == InventoryType.DROPPER) slotsPerRow = 3;
+        if (type == InventoryType.HOPPER) return SlotMask.of(0, 4);
+        if (slotsPerRow == 0) return SlotMask.EMPTY;
+        int rows = size / slotsPerRow;
+        SlotMask border = SlotMask.EMPTY;
+        for (int slot = 0; slot < size; slot++) {
+            int row = slot / slotsPerRow, column = slot % slotsPerRow;
+            if (row == 0 || row == rows - 1 || column == 0 || column == slotsPerRow - 1) border = border.or(SlotMask.of(slot));
+        }
+        return border;
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Retrieves the border slots of an inventory in clockwise order, starting at the top left.
+     *
+     * @param type the type of the inventory.
+     * @param size the size of the inventory.
+     * @return the ordered border slots, shared between callers.
+     */
+    static int[] getPerimeter(InventoryType type, int size) {
+        return PERIMETERS.computeIfAbsent(type.ordinal() << 8 | size, key -> computePerimeter(type, size));
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Computes the border slots of an inventory in clockwise order.
+     *
+     * @param type the type of the inventory.
+     * @param size the size of the inventory.
+     * @return the ordered border slots.
+     */
+    private static int[] computePerimeter(InventoryType type, int size) {
+        SlotMask border = getBorderSlots(type, size);
+        int slotsPerRow = type == InventoryType.DISPENSER || type == InventoryType.DROPPER ? 3 : 9;
+        int rows = size / slotsPerRow;
+        if (border.isEmpty() || type == InventoryType.HOPPER || rows < 2) return border.toArray();
+        int[] perimeter = new int[border.size()];
+        int i = 0;
+        for (int column = 0; column < slotsPerRow; column++) {
+            perimeter[i++] = column;
+        }
+        for (int row = 1; row < rows; row++) {
+            perimeter[i++] = row * slotsPerRow + slotsPerRow - 1;
+        }
+        for (int column = slotsPerRow - 2; column >= 0; column--) {
+            perimeter[i++] = (rows - 1) * slotsPerRow + column;
+        }
+        for (int row = rows - 2; row > 0; row--) {
+            perimeter[i++] = row * slotsPerRow;
+        }
+        return perimeter;
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Gets the click events bound to the slots of the main inventory, for {@link #ALL_CLICK_EVENTS}.
+     *
+     * @return the click events by slot, or null if there are none.
+     */
+    private Map<Integer, ClickEvent> getTopClickEvents() {
+        Map<Integer, ClickEvent> events = new HashMap<>();
+        for (int i = 0; i < clickEvents.length; i++) {
+            if (clickEvents[i] != null) events.put(i, clickEvents[i]);
+        }
+        return events.isEmpty() ? null : Collections.unmodifiableMap(events);
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * A read-only map of a value of every live GUI, by its main inventory, standing in
+     * for the global event maps GUIs used to fill.
+     *
+     * @param <V> the type of value.
+     */
+    private static final class LegacyView<V> extends AbstractMap<Inventory, V> {
+
+        private final Function<GUI, V> value;
+
+        private LegacyView(Function<GUI, V> value) {
+            this.value = value;
         }
-        for (int i = 1; i <= (slotsPerRow - 2); i++) {
-            slotsList.add(i);
+
+        @Override
+        public V get(Object key) {
+            GUI gui = key instanceof Inventory inventory ? fromInventory(inventory) : null;
+            return gui == null || gui.isDisposed() ? null : value.apply(gui);
         }
-        for (int i = slots - 2; i <= ((rows - 1) * slotsPerRow) + 1; i++) {
-            slotsList.add(i);
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
         }
-        for (int i = (inventory.getSize() - 1); i >= (inventory.getSize() - slotsPerRow); i--) {
-            slotsList.add(i);
+
+        @Override
+        public Set<Entry<Inventory, V>> entrySet() {
+            Set<Entry<Inventory, V>> entries = new HashSet<>();
+            for (GUI gui : GUIRegistry.getLive()) {
+                V current = value.apply(gui);
+                if (current != null) entries.add(new SimpleImmutableEntry<>(gui.getMainInventory(), current));
+            }
+            return Collections.unmodifiableSet(entries);
         }
-        return slotsList;
     }
-}
\ No newline at end of file
+
+    /**
+     * An animation playing in a GUI, along with the frame it currently shows.
+     */
+    private static final class Animation {
+
+        private final GUIAnimation animation;
+        private int frame = -1;
+
+        private Animation(GUIAnimation animation) {
+            this.animation = animation;
+        }
+    }
+
+    /**
+     * Which inventory of a view slots belong to.
+     */
+    public enum Section {
+        /**
+         * The GUI itself.
+         */
+        TOP,
+        /**
+         * The inventory of the viewer, below the GUI.
+         */
+        BOTTOM;
+
+        private static final int BOTTOM_SIZE = 36;
+    }
+
+    /**
+     * How long a GUI is kept alive by the {@link GUIRegistry}.
+     */
+    public enum Lifecycle {
+        /**
+         * Released as soon as the last viewer closes the GUI.
+         */
+        DISPOSABLE,
+        /**
+         * Kept until the owning plugin disables.
+         */
+        PERSISTENT,
+        /**
+         * Kept for as long as something else references the GUI.
+         */
+        WEAK;
+    }
+}
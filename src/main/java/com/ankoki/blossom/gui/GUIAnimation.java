@@ -0,0 +1,195 @@
+package com.ankoki.blossom.gui;
+
+import com.ankoki.blossom.utils.Chat;
+import org.apache.commons.lang.Validate;
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * A frame based animation of a {@link GUI}.
+ * <p>
+ * Every animation is driven by one shared Blossom task, which only ticks GUIs that
+ * are being viewed and only applies an animation when its frame changes.
+ */
+public interface GUIAnimation {
+
+    /**
+     * Creates an animation which cycles slots through the given items.
+     *
+     * @param interval ticks between each frame.
+     * @param slots the slots to animate.
+     * @param frames the items to cycle through.
+     * @return the new animation.
+     */
+    static GUIAnimation cycle(int interval, SlotMask slots, ItemStack... frames) {
+        return new SlotCycle(interval, slots, frames);
+    }
+
+    /**
+     * Creates an animation which cycles the title through the given titles.
+     *
+     * @param interval ticks between each frame.
+     * @param frames the titles to cycle through, formatted once.
+     * @return the new animation.
+     */
+    static GUIAnimation title(int interval, String... frames) {
+        return new TitleFrames(interval, frames);
+    }
+
+    /**
+     * Creates an animation which sweeps a highlighted item around the border of a GUI.
+     *
+     * @param interval ticks between each step.
+     * @param highlight the item which moves around the border.
+     * @param base the item of every other border slot.
+     * @return the new animation.
+     */
+    static GUIAnimation borderSweep(int interval, ItemStack highlight, ItemStack base) {
+        return new BorderSweep(interval, highlight, base);
+    }
+
+    /**
+     * Gets the amount of ticks between each frame.
+     *
+     * @return the interval.
+     */
+    int getInterval();
+
+    /**
+     * Gets the amount of frames for a GUI.
+     *
+     * @param gui the animated GUI.
+     * @return the amount of frames.
+     */
+    int getFrameCount(GUI gui);
+
+    /**
+     * Shows a frame in a GUI.
+     *
+     * @param gui the animated GUI.
+     * @param frame the frame to show.
+     * @param previous the frame currently shown, or -1 if none has been shown yet.
+     */
+    void apply(GUI gui, int frame, int previous);
+
+    /**
+     * Cycles slots through a list of items.
+     */
+    final class SlotCycle implements GUIAnimation {
+
+        private final int interval;
+        private final int[] slots;
+        private final ItemStack[] frames;
+
+        private SlotCycle(int interval, SlotMask slots, ItemStack... frames) {
+            Validate.isTrue(interval > 0, "The interval must be at least 1 tick!");
+            Validate.isTrue(frames.length > 0, "An animation needs at least one frame!");
+            this.interval = interval;
+            this.slots = slots.toArray();
+            this.frames = frames.clone();
+        }
+
+        @Override
+        public int getInterval() {
+            return interval;
+        }
+
+        @Override
+        public int getFrameCount(GUI gui) {
+            return frames.length;
+        }
+
+        @Override
+        public void apply(GUI gui, int frame, int previous) {
+            if (previous != -1 && frames[frame] == frames[previous]) return;
+            for (int slot : slots) {
+                gui.setItem(slot, frames[frame]);
+            }
+        }
+    }
+
+    /**
+     * Cycles the title of a GUI through a list of titles, without reopening it.
+     */
+    final class TitleFrames implements GUIAnimation {
+
+        private final int interval;
+        private final String[] frames;
+
+        private TitleFrames(int interval, String... frames) {
+            Validate.isTrue(interval > 0, "The interval must be at least 1 tick!");
+            Validate.isTrue(frames.length > 0, "An animation needs at least one frame!");
+            this.interval = interval;
+            this.frames = new String[frames.length];
+            for (int i = 0; i < frames.length; i++) {
+                this.frames[i] = Chat.format(frames[i]);
+            }
+        }
+
+        @Override
+        public int getInterval() {
+            return interval;
+        }
+
+        @Override
+        public int getFrameCount(GUI gui) {
+            return frames.length;
+        }
+
+        @Override
+        public void apply(GUI gui, int frame, int previous) {
+            gui.updateFormattedTitle(frames[frame]);
+        }
+    }
+
+    /**
+     * Sweeps a highlighted item clockwise around the border of a GUI.
+     */
+    final class BorderSweep implements GUIAnimation {
+
+        private final int interval;
+        private final ItemStack highlight, base;
+
+        private BorderSweep(int interval, ItemStack highlight, ItemStack base) {
+            Validate.isTrue(interval > 0, "The interval must be at least 1 tick!");
+            this.interval = interval;
+            this.highlight = highlight;
+            this.base = base;
+        }
+
+        @Override
+        public int getInterval() {
+            return interval;
+        }
+
+        @Override
+        public int getFrameCount(GUI gui) {
+            return Math.max(1, perimeter(gui).length);
+        }
+
+        @Override
+        public void apply(GUI gui, int frame, int previous) {
+            int[] perimeter = perimeter(gui);
+            if (perimeter.length == 0) return;
+            if (previous == -1) {
+                for (int slot : perimeter) {
+                    gui.setItem(slot, base);
+                }
+            } else {
+                gui.setItem(perimeter[previous], base);
+            }
+            gui.setItem(perimeter[frame], highlight);
+        }
+
+        /**
+         * INTERNAL USE ONLY
+         * <p>
+         * Gets the border slots of a GUI in clockwise order, starting at the top left.
+         *
+         * @param gui the GUI.
+         * @return the ordered border slots.
+         */
+        private static int[] perimeter(GUI gui) {
+            return GUI.getPerimeter(gui.getMainInventory().getType(), gui.getMainInventory().getSize());
+        }
+    }
+}
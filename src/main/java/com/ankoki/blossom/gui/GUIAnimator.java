@@ -0,0 +1,71 @@
+package com.ankoki.blossom.gui;
+
+import com.ankoki.blossom.Blossom;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * INTERNAL USE ONLY
+ * <p>
+ * Drives every {@link GUIAnimation} from a single task, which only runs while
+ * there are animated GUIs.
+ */
+final class GUIAnimator {
+
+    private static final Set<GUI> ANIMATED = Collections.newSetFromMap(new WeakHashMap<>());
+    private static BukkitTask task;
+    private static long tick;
+
+    private GUIAnimator() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Starts animating a GUI.
+     *
+     * @param gui the GUI with animations.
+     */
+    static void add(GUI gui) {
+        ANIMATED.add(gui);
+        if (task == null) task = Bukkit.getScheduler().runTaskTimer(Blossom.getInstance(), GUIAnimator::tick, 1L, 1L);
+    }
+
+    /**
+     * Stops animating a GUI.
+     *
+     * @param gui the GUI without animations.
+     */
+    static void remove(GUI gui) {
+        ANIMATED.remove(gui);
+        stopIfIdle();
+    }
+
+    /**
+     * Advances every animated GUI which is being viewed.
+     */
+    private static void tick() {
+        tick++;
+        for (GUI gui : ANIMATED.toArray(new GUI[0])) {
+            if (gui.isDisposed()) {
+                remove(gui);
+            } else if (!gui.getMainInventory().getViewers().isEmpty()) {
+                gui.animate(tick);
+            }
+        }
+        stopIfIdle();
+    }
+
+    /**
+     * Cancels the task once nothing is animated anymore.
+     */
+    private static void stopIfIdle() {
+        if (ANIMATED.isEmpty() && task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+}
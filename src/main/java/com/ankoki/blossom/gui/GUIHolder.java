@@ -0,0 +1,65 @@
+package com.ankoki.blossom.gui;
+
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+
+/**
+ * The holder of every inventory created by a {@link GUI}.
+ * <p>
+ * Inventory events resolve their GUI through this holder instead of
+ * looking the inventory up in a global table.
+ */
+public final class GUIHolder implements InventoryHolder {
+
+    private GUI gui;
+    private InventoryHolder owner;
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Creates a new GUIHolder.
+     *
+     * @param gui the GUI this holder belongs to.
+     * @param owner the holder given when the GUI was created, may be null.
+     */
+    GUIHolder(GUI gui, InventoryHolder owner) {
+        this.gui = gui;
+        this.owner = owner;
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Hands a pooled inventory over to another GUI.
+     *
+     * @param gui the GUI the inventory now belongs to, or null if it is idle.
+     * @param owner the holder given when the GUI was created, may be null.
+     */
+    void bind(GUI gui, InventoryHolder owner) {
+        this.gui = gui;
+        this.owner = owner;
+    }
+
+    /**
+     * Gets the GUI that owns this holder's inventory.
+     *
+     * @return the GUI, or null if the inventory is idle in the {@link InventoryPool}.
+     */
+    public GUI getGUI() {
+        return gui;
+    }
+
+    /**
+     * Gets the holder the GUI was created with.
+     *
+     * @return the original holder, or null if none was given.
+     */
+    public InventoryHolder getOwner() {
+        return owner;
+    }
+
+    @Override
+    public Inventory getInventory() {
+        return gui == null ? null : gui.getMainInventory();
+    }
+}
@@ -0,0 +1,367 @@
+package com.ankoki.blossom.gui;
+
+import com.ankoki.blossom.items.ItemBuilder;
+import com.ankoki.blossom.utils.Chat;
+import org.apache.commons.lang.Validate;
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+/**
+ * Describes a chest GUI as rows of characters, where every character is given an
+ * item and click event through a legend.
+ * <p>
+ * <pre>
+ * GUILayout.of("&amp;aShop",
+ *         "#########",
+ *         "#  A B  #",
+ *         "#########")
+ *     .setItem('#', border)
+ *     .setItem('A', apple)
+ *     .setClickEvent('A', event -&gt; buyApple(event));
+ * </pre>
+ * Spaces are left empty. The layout is compiled into a {@link GUITemplate} the first
+ * time it is needed, and only compiled again after the layout changes.
+ */
+@SuppressWarnings("unused")
+public final class GUILayout {
+
+    private static final Map<String, GUILayout> LOADED = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new layout.
+     *
+     * @param name name of the GUI.
+     * @param pattern the rows of the GUI, each exactly 9 characters long.
+     * @throws IllegalArgumentException if the pattern is not between 1 and 6 rows of 9 characters.
+     * @return newly created layout.
+     */
+    public static GUILayout of(String name, String... pattern) {
+        GUILayout layout = new GUILayout();
+        layout.setPattern(name, pattern);
+        return layout;
+    }
+
+    /**
+     * Creates a new layout from a configuration section.
+     * <p>
+     * The section holds a {@code title}, a {@code pattern} list and a {@code legend}
+     * section where each key is a character of the pattern, holding a {@code material}
+     * and optionally a {@code name}, {@code lore} and {@code amount}.
+     *
+     * @param section the section to read.
+     * @throws IllegalArgumentException if the section is not a valid layout.
+     * @return newly created layout.
+     */
+    public static GUILayout fromConfig(ConfigurationSection section) {
+        GUILayout layout = new GUILayout();
+        layout.read(section);
+        return layout;
+    }
+
+    /**
+     * Loads a layout from a file in a plugin's data folder.
+     * <p>
+     * Layouts are cached, so loading the same layout again returns the same instance,
+     * along with any click events bound to it. Use {@link #reload(Plugin)} to read
+     * the files again.
+     *
+     * @param plugin the plugin which owns the file.
+     * @param file the name of the file in the plugin's data folder.
+     * @param path the path of the layout section in the file.
+     * @throws IllegalArgumentException if there is no valid layout at the given path.
+     * @return the loaded layout.
+     */
+    public static GUILayout load(Plugin plugin, String file, String path) {
+        return LOADED.computeIfAbsent(key(plugin, file, path), key -> {
+            GUILayout layout = new GUILayout();
+            layout.source = new Source(plugin, file, path);
+            layout.read(layout.source.read());
+            return layout;
+        });
+    }
+
+    /**
+     * Reads every loaded layout of a plugin from its files again, keeping their click events.
+     * <p>
+     * A layout whose file is no longer valid keeps its current pattern and items, and
+     * the error is logged through the plugin's logger.
+     *
+     * @param plugin the plugin to reload the layouts of.
+     */
+    public static void reload(Plugin plugin) {
+        for (GUILayout layout : LOADED.values()) {
+            if (layout.source.plugin != plugin) continue;
+            try {
+                layout.read(layout.source.read());
+            } catch (RuntimeException ex) {
+                plugin.getLogger().log(Level.SEVERE, "Could not reload the layout at '" + layout.source.path
+                        + "' in " + layout.source.file + ", keeping the previous layout", ex);
+            }
+        }
+    }
+
+    /**
+     * Forgets every loaded layout of a plugin, done when the plugin is disabled.
+     *
+     * @param plugin the plugin to forget the layouts of.
+     */
+    public static void unload(Plugin plugin) {
+        LOADED.values().removeIf(layout -> layout.source.plugin == plugin);
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Gets the cache key of a loaded layout.
+     *
+     * @param plugin the plugin which owns the file.
+     * @param file the name of the file.
+     * @param path the path of the layout section.
+     * @return the cache key.
+     */
+    private static String key(Plugin plugin, String file, String path) {
+        return plugin.getName() + ':' + file + ':' + path;
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Creates a new GUILayout.
+     */
+    private GUILayout() {}
+
+    private final Map<Character, ItemStack> items = new HashMap<>();
+    private final Map<Character, ClickEvent> clickEvents = new HashMap<>();
+    private final Map<Character, SlotMask> slots = new HashMap<>();
+    private String name;
+    private int rows;
+    private Source source;
+    private GUITemplate compiled;
+
+    /**
+     * Sets the item shown for a character.
+     *
+     * @param key the character in the pattern.
+     * @param item the item to show.
+     * @return current layout for chaining.
+     */
+    public synchronized GUILayout setItem(char key, ItemStack item) {
+        items.put(key, item);
+        compiled = null;
+        return this;
+    }
+
+    /**
+     * Sets the item shown for a character.
+     *
+     * @param key the character in the pattern.
+     * @param item the item to show, built once.
+     * @return current layout for chaining.
+     */
+    public GUILayout setItem(char key, ItemBuilder item) {
+        return setItem(key, item.build());
+    }
+
+    /**
+     * Sets the click event for every slot of a character.
+     *
+     * @param key the character in the pattern.
+     * @param event event to occur when the character's slots are clicked.
+     * @return current layout for chaining.
+     */
+    public synchronized GUILayout setClickEvent(char key, ClickEvent event) {
+        clickEvents.put(key, event);
+        compiled = null;
+        return this;
+    }
+
+    /**
+     * Gets the slots a character occupies in the pattern.
+     *
+     * @param key the character in the pattern.
+     * @return the slots of the character.
+     */
+    public synchronized SlotMask getSlots(char key) {
+        return slots.getOrDefault(key, SlotMask.EMPTY);
+    }
+
+    /**
+     * Gets the amount of rows of the layout.
+     *
+     * @return the amount of rows.
+     */
+    public synchronized int getRows() {
+        return rows;
+    }
+
+    /**
+     * Compiles the layout into a template, or returns the last compiled template if
+     * nothing changed since.
+     *
+     * @return the compiled template.
+     */
+    public synchronized GUITemplate compile() {
+        if (compiled != null) return compiled;
+        GUITemplate.Builder builder = GUITemplate.builder(name, rows);
+        for (Map.Entry<Character, SlotMask> entry : slots.entrySet()) {
+            ItemStack item = items.get(entry.getKey());
+            ClickEvent event = clickEvents.get(entry.getKey());
+            for (int slot : entry.getValue().toArray()) {
+                if (item != null) builder.setItem(slot, item);
+            }
+            if (event != null) builder.setClickEvent(event, entry.getValue());
+        }
+        compiled = builder.build();
+        return compiled;
+    }
+
+    /**
+     * Creates a new GUI from the compiled layout.
+     *
+     * @return the new GUI.
+     */
+    public GUI instantiate() {
+        return compile().instantiate();
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Sets the title and pattern of the layout.
+     *
+     * @param name name of the GUI.
+     * @param pattern the rows of the GUI.
+     */
+    private synchronized void setPattern(String name, String... pattern) {
+        setPattern(name, pattern.length, parsePattern(pattern));
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Sets the title and already parsed pattern of the layout.
+     *
+     * @param name name of the GUI.
+     * @param rows the amount of rows.
+     * @param slots the slots of each character.
+     */
+    private synchronized void setPattern(String name, int rows, Map<Character, SlotMask> slots) {
+        this.name = name;
+        this.rows = rows;
+        this.slots.clear();
+        this.slots.putAll(slots);
+        this.compiled = null;
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Reads the title, pattern and legend items of a configuration section.
+     *
+     * @param section the section to read.
+     */
+    private synchronized void read(ConfigurationSection section) {
+        Validate.notNull(section, "There is no layout at the given path!");
+        String[] pattern = section.getStringList("pattern").toArray(new String[0]);
+        Map<Character, SlotMask> slots = parsePattern(pattern);
+        Map<Character, ItemStack> items = new HashMap<>();
+        ConfigurationSection legend = section.getConfigurationSection("legend");
+        if (legend != null) {
+            for (String key : legend.getKeys(false)) {
+                Validate.isTrue(key.length() == 1, "Legend key '" + key + "' must be a single character!");
+                items.put(key.charAt(0), readItem(legend.getConfigurationSection(key)));
+            }
+        }
+        setPattern(section.getString("title", ""), pattern.length, slots);
+        this.items.clear();
+        this.items.putAll(items);
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Finds the slots of each character of a pattern.
+     *
+     * @param pattern the rows of the GUI.
+     * @throws IllegalArgumentException if the pattern is not between 1 and 6 rows of 9 characters.
+     * @return the slots of each character, leaving out spaces.
+     */
+    private static Map<Character, SlotMask> parsePattern(String... pattern) {
+        Validate.isTrue(pattern.length > 0 && pattern.length <= 6, "A layout needs between 1 and 6 rows!");
+        Map<Character, SlotMask> slots = new HashMap<>();
+        for (int row = 0; row < pattern.length; row++) {
+            Validate.isTrue(pattern[row].length() == 9, "Row " + (row + 1) + " of the layout is not 9 characters long!");
+            for (int column = 0; column < 9; column++) {
+                char key = pattern[row].charAt(column);
+                if (key == ' ') continue;
+                slots.merge(key, SlotMask.of(row * 9 + column), SlotMask::or);
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Reads an item of the legend.
+     *
+     * @param section the section of the item.
+     * @return the read item.
+     */
+    private static ItemStack readItem(ConfigurationSection section) {
+        Validate.notNull(section, "Legend entries must be sections!");
+        Material material = Material.matchMaterial(section.getString("material", ""));
+        Validate.notNull(material, "Unknown material in legend entry '" + section.getName() + "'!");
+        ItemStack item = new ItemStack(material, section.getInt("amount", 1));
+        ItemMeta meta = item.getItemMeta();
+        if (meta == null) return item;
+        String name = section.getString("name");
+        if (name != null) meta.setDisplayName(Chat.format(name));
+        List<String> lore = new ArrayList<>();
+        for (String line : section.getStringList("lore")) {
+            lore.add(Chat.format(line));
+        }
+        if (!lore.isEmpty()) meta.setLore(lore);
+        item.setItemMeta(meta);
+        return item;
+    }
+
+    /**
+     * Where a loaded layout was read from.
+     */
+    private static final class Source {
+
+        private final Plugin plugin;
+        private final String file, path;
+
+        private Source(Plugin plugin, String file, String path) {
+            this.plugin = plugin;
+            this.file = file;
+            this.path = path;
+        }
+
+        /**
+         * Reads the layout section from its file, copying the default file out of
+         * the plugin's jar if it does not exist yet.
+         *
+         * @return the layout section.
+         */
+        private ConfigurationSection read() {
+            File config = new File(plugin.getDataFolder(), file);
+            if (!config.exists() && plugin.getResource(file) != null) plugin.saveResource(file, false);
+            return YamlConfiguration.loadConfiguration(config).getConfigurationSection(path);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.ankoki.blossom.gui;
+
+import com.ankoki.blossom.gui.GUI.Lifecycle;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps track of every live {@link GUI} and releases them according to their {@link Lifecycle}.
+ * <p>
+ * Every GUI is only weakly referenced by the registry, so anything that is abandoned
+ * without being disposed is still reclaimed by the garbage collector. Persistent GUIs
+ * are strongly held until their owning plugin disables.
+ */
+public final class GUIRegistry {
+
+    private static final ReferenceQueue<GUI> COLLECTED = new ReferenceQueue<>();
+    private static final Set<Entry> TRACKED = ConcurrentHashMap.newKeySet();
+    private static final Map<Plugin, Set<GUI>> PERSISTENT = new ConcurrentHashMap<>();
+    private static final AtomicLong DISPOSED = new AtomicLong();
+    private static final AtomicLong ABANDONED = new AtomicLong();
+
+    private GUIRegistry() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Gets the amount of GUIs that have not been disposed or collected yet.
+     *
+     * @return the amount of live GUIs.
+     */
+    public static int getLiveCount() {
+        expunge();
+        return TRACKED.size();
+    }
+
+    /**
+     * Gets the amount of live GUIs with the given lifecycle.
+     *
+     * @param lifecycle the lifecycle to count.
+     * @return the amount of live GUIs with said lifecycle.
+     */
+    public static int getLiveCount(Lifecycle lifecycle) {
+        expunge();
+        int count = 0;
+        for (Entry entry : TRACKED) {
+            GUI gui = entry.get();
+            if (gui != null && gui.getLifecycle() == lifecycle) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Gets the amount of persistent GUIs a plugin currently owns.
+     *
+     * @param plugin the owning plugin.
+     * @return the amount of persistent GUIs.
+     */
+    public static int getPersistentCount(Plugin plugin) {
+        Set<GUI> guis = PERSISTENT.get(plugin);
+        return guis == null ? 0 : guis.size();
+    }
+
+    /**
+     * Gets the amount of GUIs that have been disposed since startup.
+     *
+     * @return the amount of disposed GUIs.
+     */
+    public static long getDisposedCount() {
+        return DISPOSED.get();
+    }
+
+    /**
+     * Gets the amount of GUIs that were garbage collected without ever being disposed.
+     *
+     * @return the amount of abandoned GUIs.
+     */
+    public static long getAbandonedCount() {
+        expunge();
+        return ABANDONED.get();
+    }
+
+    /**
+     * Disposes every persistent GUI owned by a plugin.
+     *
+     * @param plugin the owning plugin.
+     */
+    public static void disposeAll(Plugin plugin) {
+        Set<GUI> guis = PERSISTENT.remove(plugin);
+        if (guis == null) return;
+        for (GUI gui : guis) {
+            gui.dispose();
+        }
+    }
+
+    /**
+     * Disposes every live GUI, regardless of its lifecycle.
+     */
+    public static void disposeAll() {
+        List<GUI> guis = new ArrayList<>(TRACKED.size());
+        for (Entry entry : TRACKED) {
+            GUI gui = entry.get();
+            if (gui != null) guis.add(gui);
+        }
+        for (GUI gui : guis) {
+            gui.dispose();
+        }
+        PERSISTENT.clear();
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Gets every GUI which is neither disposed nor reclaimed yet.
+     *
+     * @return the live GUIs.
+     */
+    static List<GUI> getLive() {
+        List<GUI> live = new ArrayList<>();
+        for (Entry entry : TRACKED) {
+            GUI gui = entry.get();
+            if (gui != null && !gui.isDisposed()) live.add(gui);
+        }
+        return live;
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Starts tracking a newly created GUI.
+     *
+     * @param gui the GUI to track.
+     * @return the registry entry of the GUI.
+     */
+    static Entry register(GUI gui) {
+        expunge();
+        Entry entry = new Entry(gui);
+        TRACKED.add(entry);
+        return entry;
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Stops tracking a disposed GUI.
+     *
+     * @param gui the disposed GUI.
+     * @param entry the registry entry of the GUI.
+     */
+    static void unregister(GUI gui, Entry entry) {
+        if (TRACKED.remove(entry)) DISPOSED.incrementAndGet();
+        entry.clear();
+        release(gui);
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Holds a GUI until its owning plugin disables.
+     *
+     * @param gui the persistent GUI.
+     * @param plugin the owning plugin.
+     */
+    static void retain(GUI gui, Plugin plugin) {
+        PERSISTENT.computeIfAbsent(plugin, k -> ConcurrentHashMap.newKeySet()).add(gui);
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Stops holding a previously persistent GUI.
+     *
+     * @param gui the GUI.
+     */
+    static void release(GUI gui) {
+        Plugin plugin = gui.getPlugin();
+        if (plugin == null) return;
+        Set<GUI> guis = PERSISTENT.get(plugin);
+        if (guis != null) guis.remove(gui);
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Removes entries of GUIs the garbage collector has already reclaimed.
+     */
+    private static void expunge() {
+        Reference<? extends GUI> reference;
+        while ((reference = COLLECTED.poll()) != null) {
+            if (TRACKED.remove(reference)) ABANDONED.incrementAndGet();
+        }
+    }
+
+    /**
+     * A weak reference to a tracked GUI.
+     */
+    static final class Entry extends WeakReference<GUI> {
+        private Entry(GUI gui) {
+            super(gui, COLLECTED);
+        }
+    }
+}
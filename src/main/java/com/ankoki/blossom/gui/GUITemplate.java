@@ -0,0 +1,343 @@
+package com.ankoki.blossom.gui;
+
+import com.ankoki.blossom.items.ItemBuilder;
+import com.ankoki.blossom.utils.Chat;
+import org.apache.commons.lang.Validate;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An immutable GUI layout which is compiled once and can be opened many times.
+ * <p>
+ * The title is formatted and every item is built when the template is built, so
+ * creating an instance only copies the prebuilt contents and click events into a
+ * fresh inventory.
+ */
+@SuppressWarnings("unused")
+public final class GUITemplate {
+
+    /**
+     * Creates a new template builder.
+     *
+     * @param name name of the GUI.
+     * @param rows amount of rows in the GUI.
+     * @throws IllegalArgumentException if rows is greater than 6.
+     * @return newly created builder.
+     */
+    public static Builder builder(String name, int rows) {
+        Validate.isTrue(rows <= 6 && rows > 0, "You cannot have less than 1 or more than 6 rows!");
+        return new Builder(name, null, rows * 9);
+    }
+
+    /**
+     * Creates a new template builder.
+     *
+     * @param name name of the GUI.
+     * @param type the type of inventory to be created.
+     * @return newly created builder.
+     */
+    public static Builder builder(String name, InventoryType type) {
+        return new Builder(name, type, type.getDefaultSize());
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Creates a new GUITemplate.
+     *
+     * @param builder the builder to compile.
+     */
+    private GUITemplate(Builder builder) {
+        this.title = Chat.format(builder.name);
+        this.type = builder.type;
+        this.size = builder.size;
+        this.contents = new ItemStack[size];
+        for (int i = 0; i < size; i++) {
+            ItemStack item = builder.contents[i];
+            if (item == null) item = builder.filler;
+            this.contents[i] = item == null ? null : item.clone();
+        }
+        this.clickEvents = builder.clickEvents.clone();
+        this.dragEvent = builder.dragEvent;
+        this.closeEvent = builder.closeEvent;
+        this.lifecycle = builder.lifecycle;
+        this.pooled = builder.pooled;
+        this.middleware = builder.middleware.toArray(new ClickMiddleware[0]);
+    }
+
+    private final String title;
+    private final InventoryType type;
+    private final int size;
+    private final ItemStack[] contents;
+    private final ClickEvent[] clickEvents;
+    private final DragEvent dragEvent;
+    private final CloseEvent closeEvent;
+    private final GUI.Lifecycle lifecycle;
+    private final boolean pooled;
+    private final ClickMiddleware[] middleware;
+
+    /**
+     * Creates a new GUI from this template.
+     *
+     * @return the new GUI.
+     */
+    public GUI instantiate() {
+        return instantiate((InventoryHolder) null);
+    }
+
+    /**
+     * Creates a new GUI from this template, owned by a player.
+     * <p>
+     * The GUI is not opened, see {@link #open(Player)}.
+     *
+     * @param player the player who owns the GUI.
+     * @return the new GUI.
+     */
+    public GUI instantiate(Player player) {
+        return instantiate((InventoryHolder) player);
+    }
+
+    /**
+     * Creates a new GUI from this template, and opens it for a player.
+     *
+     * @param player the player to open the GUI to.
+     * @return the opened GUI.
+     */
+    public GUI open(Player player) {
+        GUI gui = instantiate(player);
+        gui.openFor(player);
+        return gui;
+    }
+
+    /**
+     * Gets the formatted title of GUIs created from this template.
+     *
+     * @return the formatted title.
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Gets the size of GUIs created from this template.
+     *
+     * @return the size.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Creates a new GUI from this template.
+     *
+     * @param owner the holder given by the creator, may be null.
+     * @return the new GUI.
+     */
+    private GUI instantiate(InventoryHolder owner) {
+        GUI gui = new GUI(owner, type == null ? InventoryType.CHEST : type, size, title, pooled);
+        gui.getMainInventory().setContents(contents);
+        gui.setClickEvents(clickEvents);
+        if (dragEvent != null) gui.setDragEvent(dragEvent);
+        if (closeEvent != null) gui.setCloseEvent(closeEvent);
+        for (ClickMiddleware piece : middleware) {
+            gui.addMiddleware(piece);
+        }
+        if (lifecycle == GUI.Lifecycle.DISPOSABLE) gui.setDisposable();
+        return gui;
+    }
+
+    /**
+     * Builds a {@link GUITemplate}.
+     */
+    public static final class Builder {
+
+        private final String name;
+        private final InventoryType type;
+        private final int size;
+        private final ItemStack[] contents;
+        private final ClickEvent[] clickEvents;
+        private ItemStack filler;
+        private DragEvent dragEvent;
+        private CloseEvent closeEvent;
+        private GUI.Lifecycle lifecycle = GUI.Lifecycle.DISPOSABLE;
+        private boolean pooled;
+        private final List<ClickMiddleware> middleware = new ArrayList<>();
+
+        /**
+         * INTERNAL USE ONLY
+         * <p>
+         * Creates a new Builder.
+         *
+         * @param name name of the GUI.
+         * @param type the type of inventory, or null for a chest.
+         * @param size the size of the inventory.
+         */
+        private Builder(String name, InventoryType type, int size) {
+            this.name = name;
+            this.type = type;
+            this.size = size;
+            this.contents = new ItemStack[size];
+            this.clickEvents = new ClickEvent[size];
+        }
+
+        /**
+         * Sets an item at the given slot.
+         *
+         * @param slot slot to be set.
+         * @param item item to set the slot to.
+         * @return current builder for chaining.
+         */
+        public Builder setItem(int slot, ItemStack item) {
+            Validate.isTrue(slot >= 0 && slot < size, "Slot " + slot + " is outside of the GUI!");
+            contents[slot] = item;
+            return this;
+        }
+
+        /**
+         * Sets an item at the given slot.
+         *
+         * @param slot slot to be set.
+         * @param item item to set the slot to, built once.
+         * @return current builder for chaining.
+         */
+        public Builder setItem(int slot, ItemBuilder item) {
+            return setItem(slot, item.build());
+        }
+
+        /**
+         * Sets the border slots to a given item.
+         *
+         * @param item the item to set the border slots to.
+         * @return current builder for chaining.
+         */
+        public Builder setBorderSlots(ItemStack item) {
+            for (int slot : GUI.getBorderSlots(type == null ? InventoryType.CHEST : type, size).toArray()) {
+                contents[slot] = item;
+            }
+            return this;
+        }
+
+        /**
+         * Sets the item used for every slot which is left empty.
+         *
+         * @param item the filler item.
+         * @return current builder for chaining.
+         */
+        public Builder setFiller(ItemStack item) {
+            this.filler = item;
+            return this;
+        }
+
+        /**
+         * Sets the click event for certain slots, or all if none are given.
+         *
+         * @param event event to occur when the given slots are clicked.
+         * @param slots slots that will be effected by this event. If no slots are given, it is applied to all.
+         * @return current builder for chaining.
+         */
+        public Builder setClickEvent(ClickEvent event, int... slots) {
+            if (slots.length >= 1) {
+                for (int i : slots) {
+                    Validate.isTrue(i >= 0 && i < size, "Slot " + i + " is outside of the GUI!");
+                    clickEvents[i] = event;
+                }
+            } else {
+                Arrays.fill(clickEvents, event);
+            }
+            return this;
+        }
+
+        /**
+         * Sets the click event for every slot in a mask.
+         *
+         * @param event event to occur when the given slots are clicked.
+         * @param mask slots that will be effected by this event.
+         * @return current builder for chaining.
+         */
+        public Builder setClickEvent(ClickEvent event, SlotMask mask) {
+            for (int i : mask.toArray()) {
+                Validate.isTrue(i < size, "Slot " + i + " is outside of the GUI!");
+                clickEvents[i] = event;
+            }
+            return this;
+        }
+
+        /**
+         * Sets the drag event for all slots.
+         *
+         * @param event event to occur when slots are dragged.
+         * @return current builder for chaining.
+         */
+        public Builder setDragEvent(DragEvent event) {
+            this.dragEvent = event;
+            return this;
+        }
+
+        /**
+         * Sets the close event for the inventory.
+         *
+         * @param event event to occur when the inventory is closed.
+         * @return current builder for chaining.
+         */
+        public Builder setCloseEvent(CloseEvent event) {
+            this.closeEvent = event;
+            return this;
+        }
+
+        /**
+         * Sets whether GUIs created from the template are disposed once their last viewer
+         * closes them. This is the default, as a template can always create another.
+         *
+         * @param disposable whether or not created GUIs are disposable.
+         * @return current builder for chaining.
+         */
+        public Builder setDisposable(boolean disposable) {
+            this.lifecycle = disposable ? GUI.Lifecycle.DISPOSABLE : GUI.Lifecycle.WEAK;
+            return this;
+        }
+
+        /**
+         * Adds middleware which runs around every click event of GUIs created from the template.
+         *
+         * @param middleware the middleware to add.
+         * @return current builder for chaining.
+         * @see GUI#addMiddleware(ClickMiddleware)
+         */
+        public Builder addMiddleware(ClickMiddleware middleware) {
+            Validate.notNull(middleware, "Middleware cannot be null!");
+            this.middleware.add(middleware);
+            return this;
+        }
+
+        /**
+         * Sets whether GUIs created from the template take their inventory from the
+         * {@link InventoryPool}. Inventories are only returned to the pool when a GUI is
+         * disposed, so this is meant for disposable templates.
+         *
+         * @param pooled whether or not created GUIs are pooled.
+         * @return current builder for chaining.
+         * @see GUI#createPooledGUI(String, int)
+         */
+        public Builder setPooled(boolean pooled) {
+            this.pooled = pooled;
+            return this;
+        }
+
+        /**
+         * Compiles the template.
+         *
+         * @return the new template.
+         */
+        public GUITemplate build() {
+            return new GUITemplate(this);
+        }
+    }
+}
@@ -0,0 +1,467 @@
+package com.ankoki.blossom.gui;
+
+import com.ankoki.blossom.Blossom;
+import org.apache.commons.lang.Validate;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Times every click, drag and close handler of a {@link GUI} and stops a broken
+ * handler from breaking the dispatch around it.
+ * <p>
+ * Timings are kept per GUI, kind of handler and handler class, so every lambda passed
+ * to a GUI gets its own histogram. They live as long as their GUI, and are keyed by an
+ * id given to the GUI when it is created rather than by its title, which may change. Any handler slower than the budget is logged along
+ * with the plugin which owns it and the title of its GUI. Any exception thrown by a
+ * handler is logged the same way and never reaches the listener.
+ */
+@SuppressWarnings("unused")
+public final class HandlerWatchdog {
+
+    private static final Map<Object, Owner> OWNERS = Collections.synchronizedMap(new WeakHashMap<>());
+    private static volatile long budgetNanos = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private HandlerWatchdog() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Sets how long a single handler may take before it is logged.
+     *
+     * @param millis the budget in milliseconds, or 0 to log nothing.
+     * @throws IllegalArgumentException if the budget is negative.
+     */
+    public static void setBudget(long millis) {
+        Validate.isTrue(millis >= 0, "The budget cannot be negative!");
+        budgetNanos = millis == 0 ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    /**
+     * Gets how long a single handler may take before it is logged.
+     *
+     * @return the budget in milliseconds, or 0 if nothing is logged.
+     */
+    public static long getBudget() {
+        long budget = budgetNanos;
+        return budget == Long.MAX_VALUE ? 0 : TimeUnit.NANOSECONDS.toMillis(budget);
+    }
+
+    /**
+     * Gets the timings of every handler which has run since startup or the last reset.
+     *
+     * @return a copy of the timings of every GUI which still exists, keyed by the plugin,
+     * current title and id of the GUI and the kind and class of the handler.
+     */
+    public static Map<String, Timings> getTimings() {
+        Map<String, Timings> timings = new HashMap<>();
+        synchronized (OWNERS) {
+            OWNERS.forEach((owner, recorded) -> recorded.timings.forEach((kind, handlers) -> handlers.forEach((handler, timing) ->
+                    timings.put(describe(owner, handler) + " #" + recorded.id + ' ' + kind, timing))));
+        }
+        return timings;
+    }
+
+    /**
+     * Forgets every recorded timing.
+     */
+    public static void reset() {
+        synchronized (OWNERS) {
+            OWNERS.values().forEach(owner -> owner.timings.clear());
+        }
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Runs a click handler. If it throws, the click is cancelled.
+     *
+     * @param gui the clicked GUI.
+     * @param handler the handler to run.
+     * @param event the click.
+     */
+    public static void click(GUI gui, ClickEvent handler, InventoryClickEvent event) {
+        // Middleware is timed as part of the click event it wraps.
+        Object named = handler instanceof ClickChain chain ? chain.getHandler() : handler;
+        long start = System.nanoTime();
+        try {
+            handler.onClick(event);
+        } catch (Throwable ex) {
+            event.setCancelled(true);
+            failed(gui.getPlugin(), gui.getTitle(), "click", named, ex);
+        } finally {
+            record(gui, gui.timings, "click", named, System.nanoTime() - start, true);
+        }
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Runs a drag handler. If it throws, the drag is cancelled.
+     *
+     * @param gui the dragged in GUI.
+     * @param handler the handler to run.
+     * @param event the drag.
+     */
+    public static void drag(GUI gui, DragEvent handler, InventoryDragEvent event) {
+        long start = System.nanoTime();
+        try {
+            handler.onDrag(event);
+        } catch (Throwable ex) {
+            event.setCancelled(true);
+            failed(gui.getPlugin(), gui.getTitle(), "drag", handler, ex);
+        } finally {
+            record(gui, gui.timings, "drag", handler, System.nanoTime() - start, true);
+        }
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Runs a drag handler bound to a single slot. If it throws, the drag is cancelled.
+     *
+     * @param gui the dragged in GUI.
+     * @param handler the handler to run.
+     * @param event the drag.
+     * @param rawSlot the dragged over raw slot.
+     * @param item the item the slot would get.
+     */
+    public static void drag(GUI gui, SlotDragEvent handler, InventoryDragEvent event, int rawSlot, ItemStack item) {
+        long start = System.nanoTime();
+        try {
+            handler.onDrag(event, rawSlot, item);
+        } catch (Throwable ex) {
+            event.setCancelled(true);
+            failed(gui.getPlugin(), gui.getTitle(), "slot drag", handler, ex);
+        } finally {
+            record(gui, gui.timings, "slot drag", handler, System.nanoTime() - start, true);
+        }
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Runs a close handler.
+     *
+     * @param gui the closed GUI.
+     * @param handler the handler to run.
+     * @param event the close.
+     */
+    public static void close(GUI gui, CloseEvent handler, InventoryCloseEvent event) {
+        long start = System.nanoTime();
+        try {
+            handler.onClose(event);
+        } catch (Throwable ex) {
+            failed(gui.getPlugin(), gui.getTitle(), "close", handler, ex);
+        } finally {
+            record(gui, gui.timings, "close", handler, System.nanoTime() - start, true);
+        }
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Runs a click handler of a virtual GUI.
+     *
+     * @param gui the clicked GUI.
+     * @param handler the handler to run.
+     * @param player the player who clicked.
+     * @param slot the clicked raw slot.
+     * @param type the type of click.
+     */
+    static void click(VirtualGUI gui, VirtualClickEvent handler, Player player, int slot, ClickType type) {
+        long start = System.nanoTime();
+        try {
+            handler.onClick(player, slot, type);
+        } catch (Throwable ex) {
+            failed(null, gui.getTitle(), "virtual click", handler, ex);
+        } finally {
+            record(gui, gui.timings, "virtual click", handler, System.nanoTime() - start, true);
+        }
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Runs an async click handler, off the main thread. It is timed, but never logged
+     * for going over budget.
+     *
+     * @param gui the clicked GUI.
+     * @param handler the handler to run.
+     * @param click the snapshot of the click.
+     * @return the result of the handler, or null if it threw.
+     */
+    static ClickResult clickAsync(GUI gui, AsyncClickEvent handler, ClickSnapshot click) {
+        long start = System.nanoTime();
+        try {
+            return handler.onClick(click);
+        } catch (Throwable ex) {
+            failed(gui.getPlugin(), gui.getTitle(), "async click", handler, ex);
+            return null;
+        } finally {
+            record(gui, gui.timings, "async click", handler, System.nanoTime() - start, false);
+        }
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Applies the result of an async click handler, on the main thread.
+     *
+     * @param gui the clicked GUI.
+     * @param handler the handler which made the result.
+     * @param result the result to apply.
+     * @param player the player who clicked, or null if they are offline.
+     */
+    static void apply(GUI gui, AsyncClickEvent handler, ClickResult result, Player player) {
+        long start = System.nanoTime();
+        try {
+            result.apply(gui, player);
+        } catch (Throwable ex) {
+            failed(gui.getPlugin(), gui.getTitle(), "async click result", handler, ex);
+        } finally {
+            record(gui, gui.timings, "async click result", handler, System.nanoTime() - start, true);
+        }
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Records the time a handler took, and logs it if it went over budget.
+     *
+     * @param gui the GUI, a {@link GUI} or {@link VirtualGUI}.
+     * @param owner the timings of the GUI.
+     * @param kind the kind of handler.
+     * @param handler the handler.
+     * @param nanos the time it took.
+     * @param budgeted whether or not the handler ran on the main thread, and so has a budget.
+     */
+    private static void record(Object gui, Owner owner, String kind, Object handler, long nanos, boolean budgeted) {
+        owner.get(gui, kind, handler.getClass()).record(nanos);
+        if (!budgeted || nanos < budgetNanos) return;
+        Logger logger = logger();
+        if (logger != null) logger.warning(String.format("%s took %.2fms in its %s handler, over the budget of %sms",
+                describe(gui, handler.getClass()), nanos / 1_000_000D, kind, getBudget()));
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Logs an exception which ended an asynchronous step of a GUI, outside of a handler call.
+     *
+     * @param gui the GUI.
+     * @param kind the kind of step.
+     * @param handler the handler the step ran for.
+     * @param ex the exception.
+     */
+    static void failed(GUI gui, String kind, Object handler, Throwable ex) {
+        failed(gui.getPlugin(), gui.getTitle(), kind, handler, ex);
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Logs an exception thrown by a handler.
+     *
+     * @param plugin the plugin of the GUI, or null to look it up from the handler.
+     * @param title the title of the GUI.
+     * @param kind the kind of handler.
+     * @param handler the handler.
+     * @param ex the thrown exception.
+     */
+    private static void failed(Plugin plugin, String title, String kind, Object handler, Throwable ex) {
+        Logger logger = logger();
+        if (logger != null) logger.log(Level.SEVERE, describe(plugin, title, handler.getClass()) + " threw an exception in its " + kind + " handler", ex);
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Describes a handler of a GUI by the GUI's plugin and current title and the handler's class.
+     *
+     * @param gui the GUI, a {@link GUI} or {@link VirtualGUI}.
+     * @param handler the class of the handler.
+     * @return the description.
+     */
+    private static String describe(Object gui, Class<?> handler) {
+        if (gui instanceof GUI real) return describe(real.getPlugin(), real.getTitle(), handler);
+        return describe(null, ((VirtualGUI) gui).getTitle(), handler);
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Describes a handler by its plugin, GUI title and class.
+     *
+     * @param plugin the plugin of the GUI, or null to look it up from the handler.
+     * @param title the title of the GUI.
+     * @param handler the class of the handler.
+     * @return the description.
+     */
+    private static String describe(Plugin plugin, String title, Class<?> handler) {
+        if (plugin == null) {
+            try {
+                plugin = JavaPlugin.getProvidingPlugin(handler);
+            } catch (IllegalArgumentException | IllegalStateException ignored) {}
+        }
+        return String.format("[%s] GUI '%s' (%s)", plugin == null ? "unknown plugin" : plugin.getName(),
+                title, handler.getName());
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Gets Blossom's logger.
+     *
+     * @return the logger, or null if Blossom is not enabled.
+     */
+    private static Logger logger() {
+        JavaPlugin instance = Blossom.getInstance();
+        return instance == null ? null : instance.getLogger();
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * The timings of the handlers of one GUI, held by the GUI so they are forgotten with it.
+     */
+    static final class Owner {
+
+        private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+        private final int id = NEXT_ID.incrementAndGet();
+        private final Map<String, Map<Class<?>, Timings>> timings = new ConcurrentHashMap<>();
+        private volatile boolean registered;
+
+        /**
+         * INTERNAL USE ONLY
+         * <p>
+         * Gets the timings of a handler, listing the GUI in {@link #getTimings()} the
+         * first time it records anything.
+         *
+         * @param gui the GUI holding these timings.
+         * @param kind the kind of handler.
+         * @param handler the class of the handler.
+         * @return the timings.
+         */
+        private Timings get(Object gui, String kind, Class<?> handler) {
+            if (!registered) {
+                registered = true;
+                OWNERS.put(gui, this);
+            }
+            Map<Class<?>, Timings> handlers = timings.get(kind);
+            if (handlers == null) handlers = timings.computeIfAbsent(kind, key -> new ConcurrentHashMap<>());
+            Timings timing = handlers.get(handler);
+            return timing != null ? timing : handlers.computeIfAbsent(handler, key -> new Timings());
+        }
+    }
+
+    /**
+     * A histogram of how long a handler takes.
+     * <p>
+     * Bucket n counts every run which took between 2<sup>n-1</sup> and 2<sup>n</sup>
+     * microseconds, so percentiles are accurate to within a factor of two.
+     */
+    public static final class Timings {
+
+        private static final int BUCKETS = 32;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final AtomicLongArray totals = new AtomicLongArray(3);
+
+        private Timings() {}
+
+        /**
+         * INTERNAL USE ONLY
+         * <p>
+         * Records one run.
+         *
+         * @param nanos the time the run took.
+         */
+        private void record(long nanos) {
+            long micros = Math.max(0, nanos / 1_000L);
+            int bucket = Math.min(BUCKETS - 1, Long.SIZE - Long.numberOfLeadingZeros(micros));
+            buckets.incrementAndGet(bucket);
+            totals.incrementAndGet(0);
+            totals.addAndGet(1, nanos);
+            totals.accumulateAndGet(2, nanos, Math::max);
+        }
+
+        /**
+         * Gets how many times the handler ran.
+         *
+         * @return the amount of runs.
+         */
+        public long getCount() {
+            return totals.get(0);
+        }
+
+        /**
+         * Gets the total time the handler took.
+         *
+         * @return the total time, in nanoseconds.
+         */
+        public long getTotalNanos() {
+            return totals.get(1);
+        }
+
+        /**
+         * Gets the longest time the handler took.
+         *
+         * @return the longest time, in nanoseconds.
+         */
+        public long getMaxNanos() {
+            return totals.get(2);
+        }
+
+        /**
+         * Gets the average time the handler took.
+         *
+         * @return the average time, in nanoseconds.
+         */
+        public double getAverageNanos() {
+            long count = getCount();
+            return count == 0 ? 0 : (double) getTotalNanos() / count;
+        }
+
+        /**
+         * Gets the time under which the given share of runs finished.
+         *
+         * @param percentile the share of runs, between 0 and 1.
+         * @throws IllegalArgumentException if the percentile is not between 0 and 1.
+         * @return the upper bound of the time, in microseconds.
+         */
+        public long getPercentileMicros(double percentile) {
+            Validate.isTrue(percentile >= 0 && percentile <= 1, "The percentile must be between 0 and 1!");
+            long count = 0;
+            long[] snapshot = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                snapshot[i] = buckets.get(i);
+                count += snapshot[i];
+            }
+            long target = (long) Math.ceil(count * percentile);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += snapshot[i];
+                if (seen >= target && seen > 0) return 1L << i;
+            }
+            return 0;
+        }
+    }
+}
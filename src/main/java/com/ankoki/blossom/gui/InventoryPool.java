@@ -0,0 +1,202 @@
+package com.ankoki.blossom.gui;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.Bukkit;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reuses the inventories of pooled GUIs, see {@link GUI#createPooledGUI(String, int)}.
+ * <p>
+ * Inventories are pooled by type, size and title, as none of those can be changed
+ * once an inventory is created. A released inventory is cleared and unbound from its
+ * GUI before it is handed out again. Inventories should only be acquired and released
+ * on the main thread.
+ */
+public final class InventoryPool {
+
+    private static final Map<Key, Deque<Inventory>> IDLE = new ConcurrentHashMap<>();
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+    private static final AtomicLong RELEASED = new AtomicLong();
+    private static final AtomicLong DISCARDED = new AtomicLong();
+    private static volatile int maxIdle = 16;
+
+    private InventoryPool() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Sets how many idle inventories are kept for each type, size and title.
+     *
+     * @param max the maximum amount of idle inventories per key, 0 to stop pooling.
+     * @throws IllegalArgumentException if the maximum is negative.
+     */
+    public static void setMaxIdle(int max) {
+        Validate.isTrue(max >= 0, "The maximum amount of idle inventories cannot be negative!");
+        maxIdle = max;
+        for (Deque<Inventory> idle : IDLE.values()) {
+            synchronized (idle) {
+                while (idle.size() > max) {
+                    idle.pollLast();
+                    DISCARDED.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets how many idle inventories are kept for each type, size and title.
+     *
+     * @return the maximum amount of idle inventories per key.
+     */
+    public static int getMaxIdle() {
+        return maxIdle;
+    }
+
+    /**
+     * Gets the amount of inventories which were reused instead of created.
+     *
+     * @return the amount of pool hits.
+     */
+    public static long getHits() {
+        return HITS.get();
+    }
+
+    /**
+     * Gets the amount of inventories which had to be created, as none were idle.
+     *
+     * @return the amount of pool misses.
+     */
+    public static long getMisses() {
+        return MISSES.get();
+    }
+
+    /**
+     * Gets the amount of inventories which were returned to the pool.
+     *
+     * @return the amount of released inventories.
+     */
+    public static long getReleased() {
+        return RELEASED.get();
+    }
+
+    /**
+     * Gets the amount of inventories which were dropped instead of pooled, either
+     * because they were still viewed or the pool was full.
+     *
+     * @return the amount of discarded inventories.
+     */
+    public static long getDiscarded() {
+        return DISCARDED.get();
+    }
+
+    /**
+     * Gets the amount of inventories currently waiting in the pool.
+     *
+     * @return the amount of idle inventories.
+     */
+    public static int getIdleCount() {
+        int count = 0;
+        for (Deque<Inventory> idle : IDLE.values()) {
+            synchronized (idle) {
+                count += idle.size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Drops every idle inventory.
+     */
+    public static void clear() {
+        IDLE.clear();
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Takes an idle inventory out of the pool, or creates one if none are idle. The
+     * holder of the inventory is not bound to any GUI yet.
+     *
+     * @param type the type of the inventory.
+     * @param size the size of the inventory.
+     * @param title the formatted title of the inventory.
+     * @return the inventory.
+     */
+    static Inventory acquire(InventoryType type, int size, String title) {
+        Deque<Inventory> idle = IDLE.get(new Key(type, size, title));
+        if (idle != null) {
+            Inventory inventory;
+            synchronized (idle) {
+                inventory = idle.poll();
+            }
+            if (inventory != null) {
+                HITS.incrementAndGet();
+                return inventory;
+            }
+        }
+        MISSES.incrementAndGet();
+        return GUI.createInventory(new GUIHolder(null, null), type, size, title);
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Clears an inventory, unbinds it from its GUI and returns it to the pool.
+     *
+     * @param inventory the inventory to release.
+     * @param title the formatted title the inventory was created with.
+     */
+    static void release(Inventory inventory, String title) {
+        if (!(inventory.getHolder(false) instanceof GUIHolder holder)) return;
+        holder.bind(null, null);
+        inventory.clear();
+        if (!inventory.getViewers().isEmpty()) {
+            DISCARDED.incrementAndGet();
+            return;
+        }
+        Deque<Inventory> idle = IDLE.computeIfAbsent(new Key(inventory.getType(), inventory.getSize(), title), key -> new ArrayDeque<>());
+        synchronized (idle) {
+            if (idle.size() >= maxIdle) {
+                DISCARDED.incrementAndGet();
+                return;
+            }
+            idle.push(inventory);
+        }
+        RELEASED.incrementAndGet();
+    }
+
+    /**
+     * What an inventory is pooled by.
+     */
+    private static final class Key {
+
+        private final InventoryType type;
+        private final int size;
+        private final String title;
+
+        private Key(InventoryType type, int size, String title) {
+            this.type = type;
+            this.size = size;
+            this.title = title;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key key && key.type == type && key.size == size && key.title.equals(title);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, size, title);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.ankoki.blossom.gui;
+
+import org.bukkit.inventory.ItemStack;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A lazily rendered list of items, used by {@link PaginatedGUI} to only
+ * build the items that are actually visible.
+ */
+public interface ItemSource {
+
+    /**
+     * Creates an ItemSource which renders entries of a list on demand.
+     *
+     * @param entries the entries to display.
+     * @param renderer turns an entry into its item.
+     * @param <T> the type of the entries.
+     * @return the new ItemSource.
+     */
+    static <T> ItemSource of(List<? extends T> entries, Function<? super T, ItemStack> renderer) {
+        return new ItemSource() {
+            @Override
+            public int size() {
+                return entries.size();
+            }
+
+            @Override
+            public ItemStack itemAt(int index) {
+                return renderer.apply(entries.get(index));
+            }
+        };
+    }
+
+    /**
+     * Gets the total amount of items.
+     *
+     * @return the amount of items.
+     */
+    int size();
+
+    /**
+     * Renders the item at the given index.
+     *
+     * @param index the index of the item.
+     * @return the rendered item.
+     */
+    ItemStack itemAt(int index);
+
+    /**
+     * Renders all items between two indexes.
+     *
+     * @param from the first index, inclusive.
+     * @param to the last index, exclusive.
+     * @return the rendered items.
+     */
+    default ItemStack[] range(int from, int to) {
+        ItemStack[] items = new ItemStack[to - from];
+        for (int i = from; i < to; i++) {
+            items[i - from] = itemAt(i);
+        }
+        return items;
+    }
+}
@@ -0,0 +1,7 @@
+package com.ankoki.blossom.gui;
+
+import org.bukkit.event.inventory.InventoryClickEvent;
+
+public interface PageClickEvent {
+    void onClick(InventoryClickEvent event, int index);
+}
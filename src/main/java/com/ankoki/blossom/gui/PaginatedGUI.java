@@ -0,0 +1,363 @@
+package com.ankoki.blossom.gui;
+
+import com.ankoki.blossom.items.ItemBuilder;
+import com.ankoki.blossom.utils.Chat;
+import org.apache.commons.lang.Validate;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A GUI which shows an {@link ItemSource} one page at a time.
+ * <p>
+ * Only the visible page is ever rendered, and the last few rendered pages are
+ * kept so flicking back and forth does not render them again. Navigating swaps
+ * the contents of the existing inventory, so a paginated GUI is usually created
+ * per viewer.
+ */
+@SuppressWarnings("unused")
+public class PaginatedGUI extends GUI {
+
+    private static final int DEFAULT_CACHED_PAGES = 3;
+
+    /**
+     * Creates a new PaginatedGUI, using every row but the last for items and the
+     * first and last slot of the last row for navigation.
+     *
+     * @param name name of the GUI.
+     * @param rows amount of rows in the GUI.
+     * @param source the items to paginate.
+     * @throws IllegalArgumentException if rows is less than 2 or greater than 6.
+     * @return newly created PaginatedGUI.
+     */
+    public static PaginatedGUI createPaginatedGUI(String name, int rows, ItemSource source) {
+        return createPaginatedGUI(null, name, rows, source);
+    }
+
+    /**
+     * Creates a new PaginatedGUI, using every row but the last for items and the
+     * first and last slot of the last row for navigation.
+     *
+     * @param holder who owns this gui.
+     * @param name name of the GUI.
+     * @param rows amount of rows in the GUI.
+     * @param source the items to paginate.
+     * @throws IllegalArgumentException if rows is less than 2 or greater than 6.
+     * @return newly created PaginatedGUI.
+     */
+    public static PaginatedGUI createPaginatedGUI(InventoryHolder holder, String name, int rows, ItemSource source) {
+        Validate.isTrue(rows <= 6 && rows > 1, "You cannot have less than 2 or more than 6 rows!");
+        Validate.notNull(source, "The item source cannot be null!");
+        return new PaginatedGUI(holder, rows * 9, Chat.format(name), source);
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Creates a new PaginatedGUI.
+     *
+     * @param holder the holder given by the creator, may be null.
+     * @param size the size of the inventory.
+     * @param title the formatted title of the inventory.
+     * @param source the items to paginate.
+     */
+    protected PaginatedGUI(InventoryHolder holder, int size, String title, ItemSource source) {
+        super(holder, size, title);
+        this.source = source;
+        this.positions = new int[size];
+        int[] slots = new int[size - 9];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = i;
+        }
+        setContentSlots(slots);
+        setPreviousButton(size - 9, null);
+        setNextButton(size - 1, null);
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Creates the item of a navigation button which was given no item.
+     *
+     * @param name the name of the button.
+     * @return the button item.
+     */
+    private static ItemStack createButton(String name) {
+        return ItemBuilder.createItem(Material.ARROW).setDisplayName(name).build();
+    }
+
+    private final ItemSource source;
+    private final int[] positions;
+    private final Map<Integer, ItemStack[]> cache = new LinkedHashMap<>(8, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, ItemStack[]> eldest) {
+            return size() > cacheSize;
+        }
+    };
+    private int[] contentSlots;
+    private int previousSlot = -1, nextSlot = -1;
+    private ItemStack previousItem, nextItem;
+    private PageClickEvent itemClickEvent;
+    private int cacheSize = DEFAULT_CACHED_PAGES;
+    private int page;
+    private boolean rendered;
+
+    /**
+     * Sets which slots display items, in the order the items are shown.
+     *
+     * @param slots the content slots.
+     * @throws IllegalArgumentException if there are no slots, or a slot is outside the GUI,
+     * repeated or used by a navigation button.
+     * @return current GUI for chaining.
+     */
+    public PaginatedGUI setContentSlots(int... slots) {
+        Validate.isTrue(slots.length > 0, "You need at least one content slot!");
+        boolean[] used = new boolean[positions.length];
+        for (int slot : slots) {
+            Validate.isTrue(slot >= 0 && slot < positions.length, "The content slot " + slot + " is outside of the GUI!");
+            Validate.isTrue(!used[slot], "The content slot " + slot + " is used more than once!");
+            Validate.isTrue(slot != previousSlot && slot != nextSlot, "The content slot " + slot + " is used by a navigation button!");
+            used[slot] = true;
+        }
+        if (contentSlots != null) {
+            for (int slot : contentSlots) {
+                setItem(slot, (ItemStack) null);
+                setClickEvent(null, slot);
+            }
+        }
+        Arrays.fill(positions, -1);
+        for (int i = 0; i < slots.length; i++) {
+            positions[slots[i]] = i;
+        }
+        this.contentSlots = slots.clone();
+        setClickEvent(event -> {
+            event.setCancelled(true);
+            int index = page * contentSlots.length + positions[event.getRawSlot()];
+            if (itemClickEvent != null && index < source.size()) itemClickEvent.onClick(event, index);
+        }, contentSlots);
+        invalidate();
+        return this;
+    }
+
+    /**
+     * Sets the slot and item of the previous page button.
+     *
+     * @param slot the slot of the button.
+     * @param item the item of the button, shown only when there is a previous page, or
+     *             null for an arrow.
+     * @throws IllegalArgumentException if the slot is outside the GUI, a content slot or
+     * the slot of the next page button.
+     * @return current GUI for chaining.
+     */
+    public PaginatedGUI setPreviousButton(int slot, ItemStack item) {
+        validateButton(slot, nextSlot);
+        if (previousSlot != -1) clearButton(previousSlot);
+        this.previousSlot = slot;
+        this.previousItem = item == null ? createButton("&ePrevious Page") : item;
+        setClickEvent(event -> {
+            event.setCancelled(true);
+            previous();
+        }, slot);
+        if (rendered) renderButtons();
+        return this;
+    }
+
+    /**
+     * Sets the slot and item of the next page button.
+     *
+     * @param slot the slot of the button.
+     * @param item the item of the button, shown only when there is a next page, or
+     *             null for an arrow.
+     * @throws IllegalArgumentException if the slot is outside the GUI, a content slot or
+     * the slot of the previous page button.
+     * @return current GUI for chaining.
+     */
+    public PaginatedGUI setNextButton(int slot, ItemStack item) {
+        validateButton(slot, previousSlot);
+        if (nextSlot != -1) clearButton(nextSlot);
+        this.nextSlot = slot;
+        this.nextItem = item == null ? createButton("&eNext Page") : item;
+        setClickEvent(event -> {
+            event.setCancelled(true);
+            next();
+        }, slot);
+        if (rendered) renderButtons();
+        return this;
+    }
+
+    /**
+     * Sets the event to occur when a displayed item is clicked.
+     *
+     * @param event event to occur, given the index of the clicked item in the source.
+     * @return current GUI for chaining.
+     */
+    public PaginatedGUI setItemClickEvent(PageClickEvent event) {
+        this.itemClickEvent = event;
+        return this;
+    }
+
+    /**
+     * Sets how many rendered pages are remembered.
+     *
+     * @param pages the amount of pages to remember.
+     * @return current GUI for chaining.
+     */
+    public PaginatedGUI setCachedPages(int pages) {
+        Validate.isTrue(pages >= 0, "You cannot cache a negative amount of pages!");
+        this.cacheSize = pages;
+        cache.clear();
+        return this;
+    }
+
+    /**
+     * Shows the given page.
+     *
+     * @param page the page to show, clamped to the available pages.
+     * @return current GUI for chaining.
+     */
+    public PaginatedGUI setPage(int page) {
+        this.page = Math.max(0, Math.min(page, getPageCount() - 1));
+        render();
+        return this;
+    }
+
+    /**
+     * Shows the next page, if there is one.
+     *
+     * @return current GUI for chaining.
+     */
+    public PaginatedGUI next() {
+        if (page + 1 < getPageCount()) setPage(page + 1);
+        return this;
+    }
+
+    /**
+     * Shows the previous page, if there is one.
+     *
+     * @return current GUI for chaining.
+     */
+    public PaginatedGUI previous() {
+        if (page > 0) setPage(page - 1);
+        return this;
+    }
+
+    /**
+     * Forgets all rendered pages, and renders the current page again if it is shown.
+     * <p>
+     * This should be called whenever the item source changes.
+     *
+     * @return current GUI for chaining.
+     */
+    public PaginatedGUI invalidate() {
+        cache.clear();
+        if (rendered) setPage(page);
+        return this;
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Forgets all rendered pages and moves to a page, rendering it if it is shown.
+     *
+     * @param page the page to move to.
+     */
+    void invalidate(int page) {
+        cache.clear();
+        this.page = Math.max(0, page);
+        if (rendered) setPage(this.page);
+    }
+
+    /**
+     * Gets the current page, starting at 0.
+     *
+     * @return the current page.
+     */
+    public int getPage() {
+        return page;
+    }
+
+    /**
+     * Gets the amount of pages needed to show every item.
+     *
+     * @return the amount of pages, at least 1.
+     */
+    public int getPageCount() {
+        return Math.max(1, (source.size() + contentSlots.length - 1) / contentSlots.length);
+    }
+
+    /**
+     * Gets the items this GUI paginates.
+     *
+     * @return the item source.
+     */
+    public ItemSource getSource() {
+        return source;
+    }
+
+    @Override
+    public void openFor(Player... players) {
+        if (!rendered) render();
+        super.openFor(players);
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Writes the current page into the content slots.
+     */
+    private void render() {
+        ItemStack[] items = cache.get(page);
+        if (items == null) {
+            int from = page * contentSlots.length;
+            int to = Math.min(from + contentSlots.length, source.size());
+            items = from < to ? source.range(from, to) : new ItemStack[0];
+            if (cacheSize > 0) cache.put(page, items);
+        }
+        for (int i = 0; i < contentSlots.length; i++) {
+            setItem(contentSlots[i], i < items.length ? items[i] : null);
+        }
+        renderButtons();
+        rendered = true;
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Checks that a navigation button can be placed in a slot.
+     *
+     * @param slot the slot of the button.
+     * @param other the slot of the other button, or -1.
+     */
+    private void validateButton(int slot, int other) {
+        Validate.isTrue(slot >= 0 && slot < positions.length, "The button slot " + slot + " is outside of the GUI!");
+        Validate.isTrue(positions[slot] == -1, "The button slot " + slot + " is a content slot!");
+        Validate.isTrue(slot != other, "Both navigation buttons cannot use slot " + slot + "!");
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Removes the item and click event of a navigation button's old slot.
+     *
+     * @param slot the old slot of the button.
+     */
+    private void clearButton(int slot) {
+        setItem(slot, (ItemStack) null);
+        setClickEvent(null, slot);
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Shows the navigation buttons that can currently be used.
+     */
+    private void renderButtons() {
+        setItem(previousSlot, page > 0 ? previousItem : null);
+        setItem(nextSlot, page + 1 < getPageCount() ? nextItem : null);
+    }
+}
@@ -0,0 +1,46 @@
+package com.ankoki.blossom.gui;
+
+import com.ankoki.blossom.Blossom;
+import org.bukkit.Bukkit;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * INTERNAL USE ONLY
+ * <p>
+ * Collects every GUI with pending refreshes and flushes them once, on the next tick.
+ */
+final class RefreshQueue {
+
+    private static final Queue<GUI> QUEUED = new ConcurrentLinkedQueue<>();
+    private static final AtomicBoolean SCHEDULED = new AtomicBoolean();
+
+    private RefreshQueue() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Queues a GUI to be flushed on the next tick.
+     *
+     * @param gui the GUI with pending refreshes.
+     */
+    static void queue(GUI gui) {
+        QUEUED.add(gui);
+        if (SCHEDULED.compareAndSet(false, true)) {
+            Bukkit.getScheduler().runTask(Blossom.getInstance(), RefreshQueue::flushAll);
+        }
+    }
+
+    /**
+     * Flushes every queued GUI.
+     */
+    private static void flushAll() {
+        SCHEDULED.set(false);
+        GUI gui;
+        while ((gui = QUEUED.poll()) != null) {
+            gui.flush();
+        }
+    }
+}
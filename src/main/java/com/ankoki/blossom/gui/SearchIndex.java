@@ -0,0 +1,250 @@
+package com.ankoki.blossom.gui;
+
+import org.bukkit.ChatColor;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * An index over the stripped display names and lore of items, for {@link SearchableGUI}.
+ * <p>
+ * Every item is split into words, kept in a sorted map for prefix lookups, and into
+ * trigrams, which narrow down substring lookups to the few items which could match
+ * before their text is checked. Items can be added, changed and removed one at a time.
+ * The index should only be used on one thread.
+ */
+@SuppressWarnings("unused")
+public final class SearchIndex {
+
+    /**
+     * Indexes every item of a catalog. This renders the whole catalog, so it should be
+     * done once per catalog, such as when the plugin enables, and the index shared.
+     *
+     * @param catalog the catalog.
+     * @return the index, using catalog positions as ids.
+     */
+    public static SearchIndex of(ItemSource catalog) {
+        SearchIndex index = new SearchIndex();
+        for (int i = 0; i < catalog.size(); i++) {
+            index.put(i, catalog.itemAt(i));
+        }
+        return index;
+    }
+
+    private final List<String> texts = new ArrayList<>();
+    private final NavigableMap<String, BitSet> words = new TreeMap<>();
+    private final Map<Long, BitSet> trigrams = new HashMap<>();
+    private final BitSet indexed = new BitSet();
+
+    /**
+     * Indexes an item, replacing whatever was indexed for the same id.
+     *
+     * @param id the id of the item, usually its position in a catalog.
+     * @param item the item, or null to remove it.
+     */
+    public void put(int id, ItemStack item) {
+        remove(id);
+        if (item == null) return;
+        String text = text(item);
+        while (texts.size() <= id) {
+            texts.add(null);
+        }
+        texts.set(id, text);
+        indexed.set(id);
+        for (String word : words(text)) {
+            words.computeIfAbsent(word, key -> new BitSet()).set(id);
+        }
+        for (long trigram : trigrams(text)) {
+            trigrams.computeIfAbsent(trigram, key -> new BitSet()).set(id);
+        }
+    }
+
+    /**
+     * Removes an item from the index.
+     *
+     * @param id the id of the item.
+     */
+    public void remove(int id) {
+        if (!indexed.get(id)) return;
+        String text = texts.get(id);
+        texts.set(id, null);
+        indexed.clear(id);
+        for (String word : words(text)) {
+            BitSet ids = words.get(word);
+            ids.clear(id);
+            if (ids.isEmpty()) words.remove(word);
+        }
+        for (long trigram : trigrams(text)) {
+            BitSet ids = trigrams.get(trigram);
+            ids.clear(id);
+            if (ids.isEmpty()) trigrams.remove(trigram);
+        }
+    }
+
+    /**
+     * Removes every item from the index.
+     */
+    public void clear() {
+        texts.clear();
+        words.clear();
+        trigrams.clear();
+        indexed.clear();
+    }
+
+    /**
+     * Gets the amount of indexed items.
+     *
+     * @return the amount of items.
+     */
+    public int size() {
+        return indexed.cardinality();
+    }
+
+    /**
+     * Finds every item matching a query.
+     * <p>
+     * Every word of the query has to match. Words of one or two characters match the
+     * start of a word of the item, longer words match anywhere in its text. Case and
+     * colours are ignored.
+     *
+     * @param query the query.
+     * @return the ids of the matching items, in ascending order.
+     */
+    public int[] search(String query) {
+        String[] terms = normalise(query).split(" ");
+        BitSet result = null;
+        for (String term : terms) {
+            if (term.isEmpty()) continue;
+            BitSet matches = term.length() < 3 ? prefix(term) : substring(term);
+            if (result == null) {
+                result = matches;
+            } else {
+                result.and(matches);
+            }
+            if (result.isEmpty()) break;
+        }
+        return (result == null ? indexed : result).stream().toArray();
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Finds every item with a word starting with a prefix.
+     *
+     * @param prefix the prefix.
+     * @return the ids of the matching items.
+     */
+    private BitSet prefix(String prefix) {
+        BitSet matches = new BitSet();
+        for (BitSet ids : words.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            matches.or(ids);
+        }
+        return matches;
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Finds every item whose text contains a term of at least three characters.
+     *
+     * @param term the term.
+     * @return the ids of the matching items.
+     */
+    private BitSet substring(String term) {
+        BitSet candidates = null;
+        for (long trigram : trigrams(term)) {
+            BitSet ids = trigrams.get(trigram);
+            if (ids == null) return new BitSet();
+            if (candidates == null) {
+                candidates = (BitSet) ids.clone();
+            } else {
+                candidates.and(ids);
+            }
+        }
+        if (candidates == null) return new BitSet();
+        // Sharing every trigram does not mean they are in the same order.
+        for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+            if (!texts.get(id).contains(term)) candidates.clear(id);
+        }
+        return candidates;
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Gets the searchable text of an item.
+     *
+     * @param item the item.
+     * @return the stripped, lower case name and lore.
+     */
+    private static String text(ItemStack item) {
+        StringBuilder builder = new StringBuilder();
+        ItemMeta meta = item.hasItemMeta() ? item.getItemMeta() : null;
+        if (meta != null && meta.hasDisplayName()) {
+            builder.append(meta.getDisplayName());
+        } else {
+            builder.append(item.getType().name().replace('_', ' '));
+        }
+        if (meta != null && meta.hasLore()) {
+            for (String line : meta.getLore()) {
+                builder.append(' ').append(line);
+            }
+        }
+        return normalise(builder.toString());
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Strips colours, lowers the case and collapses whitespace.
+     *
+     * @param text the text.
+     * @return the normalised text.
+     */
+    private static String normalise(String text) {
+        String stripped = ChatColor.stripColor(text);
+        return stripped == null ? "" : stripped.toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Gets the distinct words of a normalised text.
+     *
+     * @param text the text.
+     * @return the words.
+     */
+    private static Set<String> words(String text) {
+        Set<String> words = new HashSet<>();
+        for (String word : text.split(" ")) {
+            if (!word.isEmpty()) words.add(word);
+        }
+        return words;
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Gets the distinct trigrams of a text, each packed into a long.
+     *
+     * @param text the text.
+     * @return the trigrams.
+     */
+    private static Set<Long> trigrams(String text) {
+        Set<Long> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            trigrams.add((long) text.charAt(i) << 32 | (long) text.charAt(i + 1) << 16 | text.charAt(i + 2));
+        }
+        return trigrams;
+    }
+}
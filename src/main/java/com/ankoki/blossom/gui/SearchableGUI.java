@@ -0,0 +1,176 @@
+package com.ankoki.blossom.gui;
+
+import com.ankoki.blossom.utils.Chat;
+import org.apache.commons.lang.Validate;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * A {@link PaginatedGUI} over a catalog which can be narrowed down with a search.
+ * <p>
+ * The catalog is indexed once with {@link SearchIndex#of(ItemSource)}, and the index
+ * is shared by every GUI over that catalog, so opening a GUI never renders or scans
+ * the whole catalog. When entries of the catalog change, only those entries need to
+ * be indexed again with {@link #update(int...)}. How the query is typed in, such as
+ * through chat or an anvil, is left to the creator.
+ */
+@SuppressWarnings("unused")
+public class SearchableGUI extends PaginatedGUI {
+
+    /**
+     * Creates a new SearchableGUI, using every row but the last for items and the
+     * first and last slot of the last row for navigation.
+     *
+     * @param name name of the GUI.
+     * @param rows amount of rows in the GUI.
+     * @param catalog the items to search through.
+     * @param index the index of the catalog, shared between GUIs over the same catalog.
+     * @throws IllegalArgumentException if rows is less than 2 or greater than 6.
+     * @return newly created SearchableGUI.
+     */
+    public static SearchableGUI createSearchableGUI(String name, int rows, ItemSource catalog, SearchIndex index) {
+        return createSearchableGUI(null, name, rows, catalog, index);
+    }
+
+    /**
+     * Creates a new SearchableGUI, using every row but the last for items and the
+     * first and last slot of the last row for navigation.
+     *
+     * @param holder who owns this gui.
+     * @param name name of the GUI.
+     * @param rows amount of rows in the GUI.
+     * @param catalog the items to search through.
+     * @param index the index of the catalog, shared between GUIs over the same catalog.
+     * @throws IllegalArgumentException if rows is less than 2 or greater than 6.
+     * @return newly created SearchableGUI.
+     */
+    public static SearchableGUI createSearchableGUI(InventoryHolder holder, String name, int rows, ItemSource catalog, SearchIndex index) {
+        Validate.isTrue(rows <= 6 && rows > 1, "You cannot have less than 2 or more than 6 rows!");
+        Validate.notNull(catalog, "The catalog cannot be null!");
+        Validate.notNull(index, "The search index cannot be null!");
+        return new SearchableGUI(holder, rows * 9, Chat.format(name), new Results(catalog), index);
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Creates a new SearchableGUI.
+     *
+     * @param holder the holder given by the creator, may be null.
+     * @param size the size of the inventory.
+     * @param title the formatted title of the inventory.
+     * @param results the results shown, initially the whole catalog.
+     * @param index the shared index of the catalog.
+     */
+    private SearchableGUI(InventoryHolder holder, int size, String title, Results results, SearchIndex index) {
+        super(holder, size, title, results);
+        this.results = results;
+        this.index = index;
+    }
+
+    private final Results results;
+    private final SearchIndex index;
+    private String query = "";
+
+    /**
+     * Shows only the catalog entries matching a query, from the first page.
+     *
+     * @param query the query, or an empty string to show everything.
+     * @return current GUI for chaining.
+     * @see SearchIndex#search(String)
+     */
+    public SearchableGUI search(String query) {
+        this.query = query == null ? "" : query.trim();
+        results.matches = this.query.isEmpty() ? null : index.search(this.query);
+        invalidate(0);
+        return this;
+    }
+
+    /**
+     * Indexes catalog entries again after they have changed, been added or been removed,
+     * and refreshes the results of the current query.
+     * <p>
+     * The index is shared, so other GUIs over the same catalog see the change the next
+     * time they search.
+     *
+     * @param indexes the indexes of the changed entries in the catalog.
+     * @return current GUI for chaining.
+     */
+    public SearchableGUI update(int... indexes) {
+        int size = results.catalog.size();
+        for (int i : indexes) {
+            index.put(i, i < size ? results.catalog.itemAt(i) : null);
+        }
+        if (!query.isEmpty()) results.matches = index.search(query);
+        invalidate(getPage());
+        return this;
+    }
+
+    /**
+     * Sets the event to occur when a displayed item is clicked.
+     *
+     * @param event event to occur, given the index of the clicked item in the catalog.
+     * @return current GUI for chaining.
+     */
+    @Override
+    public SearchableGUI setItemClickEvent(PageClickEvent event) {
+        super.setItemClickEvent(event == null ? null : (e, index) -> event.onClick(e, results.toCatalog(index)));
+        return this;
+    }
+
+    /**
+     * Gets the current query.
+     *
+     * @return the query, empty if everything is shown.
+     */
+    public String getQuery() {
+        return query;
+    }
+
+    /**
+     * Gets the amount of catalog entries matching the current query.
+     *
+     * @return the amount of matches.
+     */
+    public int getMatchCount() {
+        return results.size();
+    }
+
+    /**
+     * Gets the items this GUI searches through.
+     *
+     * @return the catalog.
+     */
+    public ItemSource getCatalog() {
+        return results.catalog;
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * The catalog entries matching the current query, in catalog order.
+     */
+    private static final class Results implements ItemSource {
+
+        private final ItemSource catalog;
+        private int[] matches;
+
+        private Results(ItemSource catalog) {
+            this.catalog = catalog;
+        }
+
+        @Override
+        public int size() {
+            return matches == null ? catalog.size() : matches.length;
+        }
+
+        @Override
+        public ItemStack itemAt(int index) {
+            return catalog.itemAt(toCatalog(index));
+        }
+
+        private int toCatalog(int index) {
+            return matches == null ? index : matches[index];
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.ankoki.blossom.gui;
+
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.inventory.ItemStack;
+
+public interface SlotDragEvent {
+    void onDrag(InventoryDragEvent event, int rawSlot, ItemStack item);
+}
@@ -0,0 +1,232 @@
+package com.ankoki.blossom.gui;
+
+import org.apache.commons.lang.Validate;
+
+import java.util.Arrays;
+
+/**
+ * An immutable set of inventory slots, stored as a single 64-bit mask.
+ * <p>
+ * Masks can be combined freely and are compiled into a GUI's click events
+ * without allocating a map entry per slot.
+ */
+@SuppressWarnings("unused")
+public final class SlotMask {
+
+    private static final int ROW_LENGTH = 9;
+    private static final int MAX_SLOTS = Long.SIZE;
+
+    public static final SlotMask EMPTY = new SlotMask(0L);
+
+    /**
+     * Creates a mask of the given slots.
+     *
+     * @param slots the slots to include.
+     * @throws IllegalArgumentException if a slot is negative or above 63.
+     * @return the new mask.
+     */
+    public static SlotMask of(int... slots) {
+        long bits = 0L;
+        for (int slot : slots) {
+            checkSlot(slot);
+            bits |= 1L << slot;
+        }
+        return new SlotMask(bits);
+    }
+
+    /**
+     * Creates a mask of every slot between two slots.
+     *
+     * @param from the first slot, inclusive.
+     * @param to the last slot, inclusive.
+     * @throws IllegalArgumentException if a slot is negative or above 63.
+     * @return the new mask.
+     */
+    public static SlotMask range(int from, int to) {
+        checkSlot(from);
+        checkSlot(to);
+        Validate.isTrue(from <= to, "The first slot cannot be after the last slot!");
+        long bits = (-1L >>> (MAX_SLOTS - 1 - to)) & (-1L << from);
+        return new SlotMask(bits);
+    }
+
+    /**
+     * Creates a mask of the first slots of an inventory.
+     *
+     * @param size the amount of slots.
+     * @return the new mask.
+     */
+    public static SlotMask all(int size) {
+        return size <= 0 ? EMPTY : range(0, size - 1);
+    }
+
+    /**
+     * Creates a mask of a row of a chest-like inventory.
+     *
+     * @param row the row, starting at 0.
+     * @return the new mask.
+     */
+    public static SlotMask row(int row) {
+        return range(row * ROW_LENGTH, row * ROW_LENGTH + ROW_LENGTH - 1);
+    }
+
+    /**
+     * Creates a mask of a column of a chest-like inventory.
+     *
+     * @param column the column, starting at 0.
+     * @param rows the amount of rows in the inventory.
+     * @return the new mask.
+     */
+    public static SlotMask column(int column, int rows) {
+        Validate.isTrue(column >= 0 && column < ROW_LENGTH, "A column must be between 0 and 8!");
+        long bits = 0L;
+        for (int row = 0; row < rows; row++) {
+            int slot = row * ROW_LENGTH + column;
+            checkSlot(slot);
+            bits |= 1L << slot;
+        }
+        return new SlotMask(bits);
+    }
+
+    /**
+     * Creates a mask of the outer ring of a chest-like inventory.
+     *
+     * @param rows the amount of rows in the inventory.
+     * @return the new mask.
+     */
+    public static SlotMask border(int rows) {
+        if (rows <= 0) return EMPTY;
+        return row(0).or(row(rows - 1)).or(column(0, rows)).or(column(ROW_LENGTH - 1, rows));
+    }
+
+    /**
+     * Creates a mask of every slot of a chest-like inventory which is not on its border.
+     *
+     * @param rows the amount of rows in the inventory.
+     * @return the new mask.
+     */
+    public static SlotMask inner(int rows) {
+        return all(rows * ROW_LENGTH).andNot(border(rows));
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Makes sure a slot fits in a mask.
+     *
+     * @param slot the slot to check.
+     */
+    private static void checkSlot(int slot) {
+        Validate.isTrue(slot >= 0 && slot < MAX_SLOTS, "Slot " + slot + " cannot be used in a slot mask!");
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Creates a new SlotMask.
+     *
+     * @param bits the bits of the included slots.
+     */
+    private SlotMask(long bits) {
+        this.bits = bits;
+    }
+
+    private final long bits;
+
+    /**
+     * Creates a mask of the slots in either mask.
+     *
+     * @param other the other mask.
+     * @return the new mask.
+     */
+    public SlotMask or(SlotMask other) {
+        return new SlotMask(bits | other.bits);
+    }
+
+    /**
+     * Creates a mask of the slots in both masks.
+     *
+     * @param other the other mask.
+     * @return the new mask.
+     */
+    public SlotMask and(SlotMask other) {
+        return new SlotMask(bits & other.bits);
+    }
+
+    /**
+     * Creates a mask of the slots in this mask but not in the other.
+     *
+     * @param other the other mask.
+     * @return the new mask.
+     */
+    public SlotMask andNot(SlotMask other) {
+        return new SlotMask(bits & ~other.bits);
+    }
+
+    /**
+     * Checks if a slot is in this mask.
+     *
+     * @param slot the slot to check.
+     * @return whether or not the slot is included.
+     */
+    public boolean contains(int slot) {
+        return slot >= 0 && slot < MAX_SLOTS && (bits & (1L << slot)) != 0;
+    }
+
+    /**
+     * Gets the amount of slots in this mask.
+     *
+     * @return the amount of slots.
+     */
+    public int size() {
+        return Long.bitCount(bits);
+    }
+
+    /**
+     * Checks if this mask has no slots.
+     *
+     * @return whether or not the mask is empty.
+     */
+    public boolean isEmpty() {
+        return bits == 0L;
+    }
+
+    /**
+     * Gets every slot in this mask, in ascending order.
+     *
+     * @return the slots.
+     */
+    public int[] toArray() {
+        int[] slots = new int[size()];
+        long remaining = bits;
+        for (int i = 0; remaining != 0; i++) {
+            slots[i] = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+        }
+        return slots;
+    }
+
+    /**
+     * Gets the raw bits of this mask, where bit n is set if slot n is included.
+     *
+     * @return the bits.
+     */
+    public long toLong() {
+        return bits;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof SlotMask mask && mask.bits == bits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(bits);
+    }
+
+    @Override
+    public String toString() {
+        return "SlotMask" + Arrays.toString(toArray());
+    }
+}
@@ -0,0 +1,103 @@
+package com.ankoki.blossom.gui;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Opens a GUI to a queue of players a few at a time, see {@link GUI#openSpread(int, long, Player...)}.
+ */
+final class SpreadOpen extends BukkitRunnable {
+
+    private final GUI gui;
+    private final Deque<UUID> queue = new ArrayDeque<>();
+    private final Map<UUID, CompletableFuture<Boolean>> players = new LinkedHashMap<>();
+    private final int maxPerTick;
+    private final long maxNanosPerTick;
+    private final CompletableFuture<Integer> future = new CompletableFuture<>();
+    private int opened;
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Creates a new SpreadOpen.
+     *
+     * @param gui the GUI to open.
+     * @param maxPerTick the most players to open the GUI to each tick, 0 for no limit.
+     * @param maxMicrosPerTick the most time to spend opening each tick, 0 for no limit.
+     * @param players the players to open the GUI to.
+     */
+    SpreadOpen(GUI gui, int maxPerTick, long maxMicrosPerTick, Player... players) {
+        this.gui = gui;
+        this.maxPerTick = maxPerTick == 0 ? Integer.MAX_VALUE : maxPerTick;
+        this.maxNanosPerTick = maxMicrosPerTick == 0 ? Long.MAX_VALUE : maxMicrosPerTick * 1_000L;
+        for (Player player : players) {
+            if (this.players.putIfAbsent(player.getUniqueId(), new CompletableFuture<>()) == null) queue.add(player.getUniqueId());
+        }
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Gets the future completed once every player was handled.
+     *
+     * @return the future, completed with the amount of players the GUI was opened to.
+     */
+    CompletableFuture<Integer> getFuture() {
+        return future;
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Gets the future of every player, completed once their turn comes.
+     *
+     * @return the futures by player, completed with whether or not the GUI was opened to
+     * the player, or exceptionally if opening it failed.
+     */
+    Map<UUID, CompletableFuture<Boolean>> getPlayerFutures() {
+        return Collections.unmodifiableMap(players);
+    }
+
+    @Override
+    public void run() {
+        long start = System.nanoTime();
+        int count = 0;
+        // At least one player is opened every tick, so a tight budget still makes progress.
+        while (!queue.isEmpty() && !gui.isDisposed()) {
+            if (count > 0 && (count >= maxPerTick || System.nanoTime() - start >= maxNanosPerTick)) return;
+            UUID uuid = queue.poll();
+            CompletableFuture<Boolean> result = players.get(uuid);
+            Player player = Bukkit.getPlayer(uuid);
+            if (player == null || !player.isOnline()) {
+                result.complete(false);
+                continue;
+            }
+            count++;
+            // One failing player does not stop the rest of the batch.
+            try {
+                gui.openFor(player);
+            } catch (RuntimeException ex) {
+                HandlerWatchdog.failed(gui, "spread open", this, ex);
+                result.completeExceptionally(ex);
+                continue;
+            }
+            opened++;
+            result.complete(true);
+        }
+        cancel();
+        for (UUID uuid : queue) {
+            players.get(uuid).complete(false);
+        }
+        queue.clear();
+        future.complete(opened);
+    }
+}
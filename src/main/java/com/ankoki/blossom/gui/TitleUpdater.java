@@ -0,0 +1,146 @@
+package com.ankoki.blossom.gui;
+
+import com.ankoki.blossom.scoreboards.FastReflection;
+import org.bukkit.entity.Player;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * Changes the title of an open inventory by resending the open window packet.
+ * <p>
+ * The client keeps the window and cursor, only the contents have to be sent again.
+ * NMS members are looked up by type rather than by name, so the same lookups work
+ * across mappings. If any of them cannot be found, {@link #isSupported()} is false
+ * and GUIs fall back to reopening their inventory.
+ */
+final class TitleUpdater {
+
+    private static final boolean SUPPORTED;
+    private static final MethodHandle PLAYER_GET_HANDLE;
+    private static final MethodHandle PLAYER_CONNECTION;
+    private static final MethodHandle SEND_PACKET;
+    private static final MethodHandle CONTAINER_MENU;
+    private static final MethodHandle CONTAINER_ID;
+    private static final MethodHandle MENU_TYPE;
+    private static final MethodHandle MESSAGE_FROM_STRING;
+    private static final MethodHandle PACKET_OPEN_WINDOW;
+
+    static {
+        MethodHandle getHandle = null, connection = null, sendPacket = null, containerMenu = null,
+                containerId = null, menuType = null, fromString = null, openWindow = null;
+        boolean supported;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+            Class<?> craftPlayerClass = FastReflection.obcClass("entity.CraftPlayer");
+            Class<?> craftChatMessageClass = FastReflection.obcClass("util.CraftChatMessage");
+            Class<?> entityPlayerClass = FastReflection.nmsClass("server.level", "EntityPlayer");
+            Class<?> playerConnectionClass = FastReflection.nmsClass("server.network", "PlayerConnection");
+            Class<?> packetClass = FastReflection.nmsClass("network.protocol", "Packet");
+            Class<?> componentClass = FastReflection.nmsClass("network.chat", "IChatBaseComponent");
+            Class<?> containerClass = FastReflection.nmsClass("world.inventory", "Container");
+            Class<?> containersClass = FastReflection.nmsClass("world.inventory", "Containers");
+            Class<?> openWindowClass = FastReflection.nmsClass("network.protocol.game", "PacketPlayOutOpenWindow");
+            Method send = Arrays.stream(playerConnectionClass.getMethods())
+                    .filter(method -> method.getReturnType() == void.class
+                            && method.getParameterCount() == 1
+                            && method.getParameterTypes()[0] == packetClass)
+                    .findFirst().orElseThrow(NoSuchMethodException::new);
+
+            getHandle = lookup.unreflect(craftPlayerClass.getMethod("getHandle"));
+            connection = lookup.unreflectGetter(field(entityPlayerClass, field -> field.getType() == playerConnectionClass));
+            sendPacket = lookup.unreflect(send);
+            // The open menu is the only mutable container field, the player's own menu is final.
+            containerMenu = lookup.unreflectGetter(field(entityPlayerClass, field -> field.getType() == containerClass
+                    && !Modifier.isFinal(field.getModifiers())));
+            containerId = lookup.unreflectGetter(field(containerClass, field -> field.getType() == int.class
+                    && Modifier.isPublic(field.getModifiers()) && Modifier.isFinal(field.getModifiers())));
+            menuType = lookup.unreflectGetter(field(containerClass, field -> field.getType() == containersClass));
+            fromString = lookup.unreflect(craftChatMessageClass.getMethod("fromString", String.class));
+            openWindow = lookup.unreflectConstructor(openWindowClass.getConstructor(int.class, containersClass, componentClass));
+            supported = true;
+        } catch (Throwable ex) {
+            supported = false;
+        }
+        SUPPORTED = supported;
+        PLAYER_GET_HANDLE = getHandle;
+        PLAYER_CONNECTION = connection;
+        SEND_PACKET = sendPacket;
+        CONTAINER_MENU = containerMenu;
+        CONTAINER_ID = containerId;
+        MENU_TYPE = menuType;
+        MESSAGE_FROM_STRING = fromString;
+        PACKET_OPEN_WINDOW = openWindow;
+    }
+
+    private TitleUpdater() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Checks if titles can be changed on this server.
+     *
+     * @return whether or not every NMS member was found.
+     */
+    static boolean isSupported() {
+        return SUPPORTED;
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Changes the title of the inventory a player has open, then resends its contents
+     * and the player's cursor.
+     *
+     * @param player the player.
+     * @param title the formatted title.
+     * @return whether or not the title was changed.
+     */
+    static boolean update(Player player, String title) {
+        if (!SUPPORTED) return false;
+        try {
+            Object handle = PLAYER_GET_HANDLE.invoke(player);
+            Object menu = CONTAINER_MENU.invoke(handle);
+            Object type = MENU_TYPE.invoke(menu);
+            // The player's own inventory has no menu type, and is never a GUI.
+            if (type == null) return false;
+            int id = (int) CONTAINER_ID.invoke(menu);
+            Object packet = PACKET_OPEN_WINDOW.invoke(id, type, Array.get(MESSAGE_FROM_STRING.invoke(title), 0));
+            SEND_PACKET.invoke(PLAYER_CONNECTION.invoke(handle), packet);
+        } catch (Throwable ex) {
+            return false;
+        }
+        player.updateInventory();
+        return true;
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Finds the first field of a class or its superclasses which matches a predicate.
+     *
+     * @param clazz the class to search.
+     * @param predicate the predicate the field must match.
+     * @throws NoSuchFieldException if no field matches.
+     * @return the accessible field.
+     */
+    private static Field field(Class<?> clazz, Predicate<Field> predicate) throws NoSuchFieldException {
+        for (Class<?> current = clazz; current != null; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || !predicate.test(field)) continue;
+                field.setAccessible(true);
+                return field;
+            }
+        }
+        throw new NoSuchFieldException("No field in " + clazz.getName() + " matches the predicate.");
+    }
+}
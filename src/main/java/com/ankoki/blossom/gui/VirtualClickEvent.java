@@ -0,0 +1,8 @@
+package com.ankoki.blossom.gui;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.ClickType;
+
+public interface VirtualClickEvent {
+    void onClick(Player player, int slot, ClickType type);
+}
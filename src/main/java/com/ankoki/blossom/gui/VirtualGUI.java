@@ -0,0 +1,333 @@
+package com.ankoki.blossom.gui;
+
+import com.ankoki.blossom.Blossom;
+import com.ankoki.blossom.utils.Chat;
+import org.apache.commons.lang.Validate;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * A chest GUI for one player which only exists as packets.
+ * <p>
+ * No Bukkit inventory is created. The items are converted once into the form they are
+ * sent in, the window is opened on the client only, and clicks and closes are taken
+ * out of the player's connection before the server sees them. Handlers always run on
+ * the main thread, after which the window is sent again to undo whatever the client
+ * predicted the click would do.
+ * <p>
+ * This needs packets that differ between versions, see {@link #isSupported()}.
+ */
+@SuppressWarnings("unused")
+public final class VirtualGUI {
+
+    // The server cycles its own windows through ids 1 to 100, and the id is sent as a byte.
+    private static final int CONTAINER_ID = 110;
+    private static final Map<UUID, VirtualGUI> OPEN = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new virtual GUI.
+     *
+     * @param player the only player who can see the GUI.
+     * @param name name of the GUI.
+     * @param rows amount of rows in the GUI.
+     * @throws IllegalArgumentException if rows is greater than 6.
+     * @return newly created GUI.
+     */
+    public static VirtualGUI create(Player player, String name, int rows) {
+        Validate.isTrue(rows <= 6 && rows > 0, "You cannot have less than 1 or more than 6 rows!");
+        return new VirtualGUI(player, Chat.format(name), rows);
+    }
+
+    /**
+     * Checks if virtual GUIs can be used on this server.
+     *
+     * @return whether or not every packet needed was found.
+     */
+    public static boolean isSupported() {
+        return VirtualPackets.isSupported();
+    }
+
+    /**
+     * Closes every open virtual GUI, and stops listening to their players' connections.
+     */
+    public static void closeAll() {
+        for (VirtualGUI gui : new ArrayList<>(OPEN.values())) {
+            gui.close();
+        }
+        if (VirtualPackets.isSupported()) VirtualPackets.uninjectAll();
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Marks a player's virtual GUI as closed, because the client replaced or dropped it.
+     *
+     * @param player the player.
+     */
+    public static void forget(Player player) {
+        VirtualGUI gui = OPEN.get(player.getUniqueId());
+        if (gui != null) gui.closed();
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Gets the virtual GUI a player has open.
+     *
+     * @param player the unique id of the player.
+     * @return the open GUI, or null if there is none.
+     */
+    static VirtualGUI getOpen(UUID player) {
+        return OPEN.get(player);
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Creates a new VirtualGUI.
+     *
+     * @param player the viewer of the GUI.
+     * @param title the formatted title.
+     * @param rows amount of rows in the GUI.
+     */
+    private VirtualGUI(Player player, String title, int rows) {
+        this.player = player.getUniqueId();
+        this.title = title;
+        this.rows = rows;
+        this.items = new Object[rows * 9];
+        this.clickEvents = new VirtualClickEvent[rows * 9];
+        Arrays.fill(items, VirtualPackets.empty());
+    }
+
+    private final UUID player;
+    private final String title;
+    private final int rows;
+    private final Object[] items;
+    private final VirtualClickEvent[] clickEvents;
+    private Consumer<Player> closeEvent;
+    private int state;
+    private volatile boolean open;
+    final HandlerWatchdog.Owner timings = new HandlerWatchdog.Owner();
+
+    /**
+     * Sets an item in the GUI, sending it straight away if the GUI is open.
+     *
+     * @param slot the slot to set.
+     * @param item the item to set, which is copied.
+     * @throws IllegalArgumentException if the slot is outside of the GUI.
+     * @return current GUI for chaining.
+     */
+    public VirtualGUI setItem(int slot, ItemStack item) {
+        Validate.isTrue(slot >= 0 && slot < items.length, "Slot " + slot + " is outside of the GUI!");
+        Player viewer = open ? Bukkit.getPlayer(player) : null;
+        try {
+            items[slot] = VirtualPackets.toNMS(item);
+            if (viewer != null) VirtualPackets.setSlot(viewer, CONTAINER_ID, ++state, slot, items[slot]);
+        } catch (Throwable t) {
+            throw new RuntimeException("Unable to set virtual GUI item", t);
+        }
+        return this;
+    }
+
+    /**
+     * Sets the click event for the given slots.
+     *
+     * @param event event to occur when the given slots are clicked.
+     * @param slots slots that will be effected by this event.
+     *              If no slots are given, all slots will be effected.
+     * @throws IllegalArgumentException if a slot is outside of the GUI.
+     * @return current GUI for chaining.
+     */
+    public VirtualGUI setClickEvent(VirtualClickEvent event, int... slots) {
+        if (slots.length >= 1) {
+            for (int i : slots) {
+                Validate.isTrue(i >= 0 && i < clickEvents.length, "Slot " + i + " is outside of the GUI!");
+                clickEvents[i] = event;
+            }
+        } else {
+            Arrays.fill(clickEvents, event);
+        }
+        return this;
+    }
+
+    /**
+     * Sets the click event for every slot in a mask.
+     *
+     * @param event event to occur when the given slots are clicked.
+     * @param mask slots that will be effected by this event.
+     * @throws IllegalArgumentException if the mask has slots outside of the GUI.
+     * @return current GUI for chaining.
+     */
+    public VirtualGUI setClickEvent(VirtualClickEvent event, SlotMask mask) {
+        return setClickEvent(event, mask.toArray());
+    }
+
+    /**
+     * Sets the event which occurs when the GUI is closed, however it was closed.
+     *
+     * @param event event to occur when the GUI closes.
+     * @return current GUI for chaining.
+     */
+    public VirtualGUI setCloseEvent(Consumer<Player> event) {
+        this.closeEvent = event;
+        return this;
+    }
+
+    /**
+     * Opens the GUI, closing any inventory or virtual GUI the player has open.
+     *
+     * @throws IllegalStateException if virtual GUIs are not supported or the player is offline.
+     */
+    public void open() {
+        if (!VirtualPackets.isSupported()) throw new IllegalStateException("Virtual GUIs are not supported on this server!");
+        Player viewer = Bukkit.getPlayer(player);
+        if (viewer == null) throw new IllegalStateException("The player of a virtual GUI is offline!");
+        VirtualGUI previous = OPEN.get(player);
+        if (previous != null) previous.close();
+        viewer.closeInventory();
+        try {
+            VirtualPackets.inject(viewer);
+            OPEN.put(player, this);
+            open = true;
+            VirtualPackets.open(viewer, CONTAINER_ID, rows, title);
+            VirtualPackets.setContents(viewer, CONTAINER_ID, ++state, items);
+        } catch (Throwable t) {
+            closed();
+            throw new RuntimeException("Unable to open virtual GUI", t);
+        }
+    }
+
+    /**
+     * Closes the GUI, if it is open.
+     */
+    public void close() {
+        if (!open) return;
+        Player viewer = Bukkit.getPlayer(player);
+        if (viewer != null) {
+            try {
+                VirtualPackets.close(viewer, CONTAINER_ID);
+            } catch (Throwable t) {
+                throw new RuntimeException("Unable to close virtual GUI", t);
+            } finally {
+                closed();
+            }
+        } else {
+            closed();
+        }
+    }
+
+    /**
+     * Checks if the GUI is open on the client.
+     *
+     * @return whether or not the GUI is open.
+     */
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * Gets the title of the GUI.
+     *
+     * @return the formatted title.
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Takes clicks and closes of this GUI out of the player's connection. Called on the
+     * connection's thread, so handling is moved to the main thread.
+     *
+     * @param packet an inbound packet of the player.
+     * @return whether or not the packet was taken.
+     */
+    boolean intercept(Object packet) {
+        try {
+            int[] click = VirtualPackets.readClick(packet);
+            if (click != null) {
+                if (click[0] != CONTAINER_ID) return false;
+                Bukkit.getScheduler().runTask(Blossom.getInstance(), () -> click(click[1], clickType(click[3], click[2])));
+                return true;
+            }
+            if (VirtualPackets.readClose(packet) != CONTAINER_ID) return false;
+            Bukkit.getScheduler().runTask(Blossom.getInstance(), this::closed);
+            return true;
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Runs the click event of a slot, then sends the window again.
+     *
+     * @param slot the clicked raw slot.
+     * @param type the type of click.
+     */
+    private void click(int slot, ClickType type) {
+        Player viewer = Bukkit.getPlayer(player);
+        if (!open || viewer == null) return;
+        VirtualClickEvent event = slot >= 0 && slot < clickEvents.length ? clickEvents[slot] : null;
+        if (event != null) HandlerWatchdog.click(this, event, viewer, slot, type);
+        if (!open) return;
+        try {
+            VirtualPackets.setContents(viewer, CONTAINER_ID, ++state, items);
+        } catch (Throwable t) {
+            throw new RuntimeException("Unable to update virtual GUI", t);
+        }
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Marks the GUI as closed and runs its close event.
+     */
+    private void closed() {
+        if (!open) return;
+        open = false;
+        OPEN.remove(player, this);
+        Player viewer = Bukkit.getPlayer(player);
+        // Only connections with a virtual GUI open are listened to.
+        if (viewer != null && OPEN.get(player) == null) {
+            try {
+                VirtualPackets.uninject(viewer);
+            } catch (Throwable ignored) {}
+        }
+        if (closeEvent != null && viewer != null) closeEvent.accept(viewer);
+        // The client may have moved items around in its copy of the player's inventory.
+        if (viewer != null) viewer.updateInventory();
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Gets the Bukkit click type of a click packet.
+     *
+     * @param mode the ordinal of the click mode.
+     * @param button the button of the click.
+     * @return the click type.
+     */
+    private static ClickType clickType(int mode, int button) {
+        return switch (mode) {
+            case 0 -> button == 0 ? ClickType.LEFT : ClickType.RIGHT;
+            case 1 -> button == 0 ? ClickType.SHIFT_LEFT : ClickType.SHIFT_RIGHT;
+            case 2 -> button == 40 ? ClickType.SWAP_OFFHAND : ClickType.NUMBER_KEY;
+            case 3 -> ClickType.MIDDLE;
+            case 4 -> button == 0 ? ClickType.DROP : ClickType.CONTROL_DROP;
+            case 6 -> ClickType.DOUBLE_CLICK;
+            default -> ClickType.UNKNOWN;
+        };
+    }
+}
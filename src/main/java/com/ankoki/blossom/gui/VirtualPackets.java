@@ -0,0 +1,427 @@
+package com.ankoki.blossom.gui;
+
+import com.ankoki.blossom.scoreboards.FastReflection;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Sends and reads the packets of a {@link VirtualGUI}.
+ * <p>
+ * Like the scoreboard, every NMS member is looked up once. Members whose type tells
+ * them apart are found by type, and any other member by its Spigot-mapped name,
+ * or its Mojang-mapped name on servers which are not remapped. If anything cannot be
+ * found, or is not laid out as expected, {@link #isSupported()} is false and virtual
+ * GUIs cannot be opened.
+ */
+final class VirtualPackets {
+
+    private static final String HANDLER_NAME = "blossom_virtual_gui";
+    private static final Set<Channel> INJECTED = ConcurrentHashMap.newKeySet();
+
+    private static final boolean SUPPORTED;
+    private static final MethodHandle PLAYER_GET_HANDLE;
+    private static final MethodHandle PLAYER_CONNECTION;
+    private static final MethodHandle NETWORK_MANAGER;
+    private static final MethodHandle CHANNEL;
+    private static final MethodHandle SEND_PACKET;
+    private static final MethodHandle MESSAGE_FROM_STRING;
+    private static final MethodHandle AS_NMS_COPY;
+    private static final MethodHandle NON_NULL_LIST;
+    private static final MethodHandle PACKET_OPEN_WINDOW;
+    private static final MethodHandle PACKET_WINDOW_ITEMS;
+    private static final MethodHandle PACKET_SET_SLOT;
+    private static final MethodHandle PACKET_CLOSE_WINDOW;
+    private static final MethodHandle CLICK_CONTAINER;
+    private static final MethodHandle CLICK_SLOT;
+    private static final MethodHandle CLICK_BUTTON;
+    private static final MethodHandle CLICK_MODE;
+    private static final MethodHandle CLOSE_CONTAINER;
+    private static final Class<?> CLICK_PACKET;
+    private static final Class<?> CLOSE_PACKET;
+    private static final Object[] MENU_TYPES;
+    private static final Object EMPTY_ITEM;
+
+    static {
+        MethodHandle getHandle = null, connection = null, networkManager = null, channel = null, sendPacket = null,
+                fromString = null, asNMSCopy = null, nonNullList = null, openWindow = null, windowItems = null,
+                setSlot = null, closeWindow = null, clickContainer = null, clickSlot = null, clickButton = null,
+                clickMode = null, closeContainer = null;
+        Class<?> clickPacket = null, closePacket = null;
+        Object[] menuTypes = null;
+        Object emptyItem = null;
+        boolean supported;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+            String gameProtocolPackage = "network.protocol.game";
+            Class<?> craftPlayerClass = FastReflection.obcClass("entity.CraftPlayer");
+            Class<?> craftChatMessageClass = FastReflection.obcClass("util.CraftChatMessage");
+            Class<?> craftItemStackClass = FastReflection.obcClass("inventory.CraftItemStack");
+            Class<?> entityPlayerClass = FastReflection.nmsClass("server.level", "EntityPlayer");
+            Class<?> playerConnectionClass = FastReflection.nmsClass("server.network", "PlayerConnection");
+            Class<?> networkManagerClass = FastReflection.nmsClass("network", "NetworkManager");
+            Class<?> packetClass = FastReflection.nmsClass("network.protocol", "Packet");
+            Class<?> componentClass = FastReflection.nmsClass("network.chat", "IChatBaseComponent");
+            Class<?> itemStackClass = FastReflection.nmsClass("world.item", "ItemStack");
+            Class<?> nonNullListClass = FastReflection.nmsClass("core", "NonNullList");
+            Class<?> containersClass = FastReflection.nmsClass("world.inventory", "Containers");
+            Class<?> clickTypeClass = FastReflection.nmsClass("world.inventory", "InventoryClickType");
+            Class<?> openWindowClass = FastReflection.nmsClass(gameProtocolPackage, "PacketPlayOutOpenWindow");
+            Class<?> windowItemsClass = FastReflection.nmsClass(gameProtocolPackage, "PacketPlayOutWindowItems");
+            Class<?> setSlotClass = FastReflection.nmsClass(gameProtocolPackage, "PacketPlayOutSetSlot");
+            Class<?> closeWindowClass = FastReflection.nmsClass(gameProtocolPackage, "PacketPlayOutCloseWindow");
+            clickPacket = FastReflection.nmsClass(gameProtocolPackage, "PacketPlayInWindowClick");
+            closePacket = FastReflection.nmsClass(gameProtocolPackage, "PacketPlayInCloseWindow");
+
+            Method send = Arrays.stream(playerConnectionClass.getMethods())
+                    .filter(method -> method.getReturnType() == void.class
+                            && method.getParameterCount() == 1
+                            && method.getParameterTypes()[0] == packetClass)
+                    .findFirst().orElseThrow(NoSuchMethodException::new);
+            Method withSize = Arrays.stream(nonNullListClass.getMethods())
+                    .filter(method -> Modifier.isStatic(method.getModifiers())
+                            && method.getReturnType() == nonNullListClass
+                            && Arrays.equals(method.getParameterTypes(), new Class<?>[]{int.class, Object.class}))
+                    .findFirst().orElseThrow(NoSuchMethodException::new);
+            // The container, state, slot and button, anything else means the packet changed.
+            if (fields(clickPacket, field -> field.getType() == int.class).length != 4) {
+                throw new NoSuchFieldException("The click packet is not laid out as expected.");
+            }
+            Field clickContainerField = FastReflection.field(clickPacket, int.class, "a", "containerId");
+            Field clickSlotField = FastReflection.field(clickPacket, int.class, "c", "slotNum");
+            Field clickButtonField = FastReflection.field(clickPacket, int.class, "d", "buttonNum");
+            menuTypes = new Object[6];
+            for (int i = 0; i < menuTypes.length; i++) {
+                Field chestType = FastReflection.field(containersClass, containersClass, String.valueOf((char) ('a' + i)), "GENERIC_9x" + (i + 1));
+                if (!Modifier.isStatic(chestType.getModifiers())) throw new NoSuchFieldException("The chest menu types are not laid out as expected.");
+                menuTypes[i] = chestType.get(null);
+            }
+            if (Arrays.stream(menuTypes).distinct().count() != menuTypes.length) {
+                throw new NoSuchFieldException("The chest menu types are not laid out as expected.");
+            }
+
+            getHandle = lookup.unreflect(craftPlayerClass.getMethod("getHandle"));
+            connection = lookup.unreflectGetter(fields(entityPlayerClass, field -> field.getType() == playerConnectionClass)[0]);
+            networkManager = lookup.unreflectGetter(fields(playerConnectionClass, field -> field.getType() == networkManagerClass)[0]);
+            channel = lookup.unreflectGetter(fields(networkManagerClass, field -> field.getType() == Channel.class)[0]);
+            sendPacket = lookup.unreflect(send);
+            fromString = lookup.unreflect(craftChatMessageClass.getMethod("fromString", String.class));
+            asNMSCopy = lookup.unreflect(craftItemStackClass.getMethod("asNMSCopy", ItemStack.class));
+            nonNullList = lookup.unreflect(withSize);
+            openWindow = lookup.unreflectConstructor(openWindowClass.getConstructor(int.class, containersClass, componentClass));
+            windowItems = lookup.unreflectConstructor(windowItemsClass.getConstructor(int.class, int.class, nonNullListClass, itemStackClass));
+            setSlot = lookup.unreflectConstructor(setSlotClass.getConstructor(int.class, int.class, int.class, itemStackClass));
+            closeWindow = lookup.unreflectConstructor(closeWindowClass.getConstructor(int.class));
+            clickContainer = lookup.unreflectGetter(clickContainerField);
+            clickSlot = lookup.unreflectGetter(clickSlotField);
+            clickButton = lookup.unreflectGetter(clickButtonField);
+            clickMode = lookup.unreflectGetter(fields(clickPacket, field -> field.getType() == clickTypeClass)[0]);
+            closeContainer = lookup.unreflectGetter(fields(closePacket, field -> field.getType() == int.class)[0]);
+            emptyItem = asNMSCopy.invoke((ItemStack) null);
+            supported = true;
+        } catch (Throwable ex) {
+            supported = false;
+        }
+        SUPPORTED = supported;
+        PLAYER_GET_HANDLE = getHandle;
+        PLAYER_CONNECTION = connection;
+        NETWORK_MANAGER = networkManager;
+        CHANNEL = channel;
+        SEND_PACKET = sendPacket;
+        MESSAGE_FROM_STRING = fromString;
+        AS_NMS_COPY = asNMSCopy;
+        NON_NULL_LIST = nonNullList;
+        PACKET_OPEN_WINDOW = openWindow;
+        PACKET_WINDOW_ITEMS = windowItems;
+        PACKET_SET_SLOT = setSlot;
+        PACKET_CLOSE_WINDOW = closeWindow;
+        CLICK_CONTAINER = clickContainer;
+        CLICK_SLOT = clickSlot;
+        CLICK_BUTTON = clickButton;
+        CLICK_MODE = clickMode;
+        CLOSE_CONTAINER = closeContainer;
+        CLICK_PACKET = clickPacket;
+        CLOSE_PACKET = closePacket;
+        MENU_TYPES = menuTypes;
+        EMPTY_ITEM = emptyItem;
+    }
+
+    private VirtualPackets() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Checks if virtual GUIs can be used on this server.
+     *
+     * @return whether or not every NMS member was found.
+     */
+    static boolean isSupported() {
+        return SUPPORTED;
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Copies an item into its NMS form, which is what is kept by a virtual GUI.
+     *
+     * @param item the item to copy, may be null.
+     * @return the NMS copy.
+     */
+    static Object toNMS(ItemStack item) throws Throwable {
+        return item == null ? EMPTY_ITEM : AS_NMS_COPY.invoke(item);
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Gets the NMS form of an empty slot.
+     *
+     * @return the empty item.
+     */
+    static Object empty() {
+        return EMPTY_ITEM;
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Opens a chest window on the client.
+     *
+     * @param player the player to open the window to.
+     * @param container the id of the window.
+     * @param rows the amount of rows of the window.
+     * @param title the formatted title of the window.
+     */
+    static void open(Player player, int container, int rows, String title) throws Throwable {
+        Object component = Array.get(MESSAGE_FROM_STRING.invoke(title), 0);
+        send(player, PACKET_OPEN_WINDOW.invoke(container, MENU_TYPES[rows - 1], component));
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Sends every slot of a window, followed by the player's own inventory and an empty cursor.
+     *
+     * @param player the viewer of the window.
+     * @param container the id of the window.
+     * @param state the state id of the window.
+     * @param top the NMS items of the window.
+     */
+    @SuppressWarnings("unchecked")
+    static void setContents(Player player, int container, int state, Object[] top) throws Throwable {
+        ItemStack[] storage = player.getInventory().getStorageContents();
+        List<Object> items = (List<Object>) NON_NULL_LIST.invoke(top.length + storage.length, EMPTY_ITEM);
+        for (int i = 0; i < top.length; i++) {
+            items.set(i, top[i]);
+        }
+        // Windows show the main inventory before the hotbar.
+        for (int i = 0; i < storage.length; i++) {
+            items.set(top.length + i, toNMS(storage[(i + 9) % storage.length]));
+        }
+        send(player, PACKET_WINDOW_ITEMS.invoke(container, state, items, EMPTY_ITEM));
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Sends a single slot of a window.
+     *
+     * @param player the viewer of the window.
+     * @param container the id of the window.
+     * @param state the state id of the window.
+     * @param slot the slot to send.
+     * @param item the NMS item in the slot.
+     */
+    static void setSlot(Player player, int container, int state, int slot, Object item) throws Throwable {
+        send(player, PACKET_SET_SLOT.invoke(container, state, slot, item));
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Closes a window on the client.
+     *
+     * @param player the viewer of the window.
+     * @param container the id of the window.
+     */
+    static void close(Player player, int container) throws Throwable {
+        send(player, PACKET_CLOSE_WINDOW.invoke(container));
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Reads a click packet.
+     *
+     * @param packet any inbound packet.
+     * @return the container, slot, button and click mode ordinal, or null if the packet is not a click.
+     */
+    static int[] readClick(Object packet) throws Throwable {
+        if (!CLICK_PACKET.isInstance(packet)) return null;
+        return new int[]{
+                (int) CLICK_CONTAINER.invoke(packet),
+                (int) CLICK_SLOT.invoke(packet),
+                (int) CLICK_BUTTON.invoke(packet),
+                ((Enum<?>) CLICK_MODE.invoke(packet)).ordinal()
+        };
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Reads a close packet.
+     *
+     * @param packet any inbound packet.
+     * @return the closed container, or -1 if the packet is not a close.
+     */
+    static int readClose(Object packet) throws Throwable {
+        return CLOSE_PACKET.isInstance(packet) ? (int) CLOSE_CONTAINER.invoke(packet) : -1;
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Adds the packet interceptor to a player's connection, if it is not there yet.
+     * <p>
+     * An interceptor left behind by an earlier instance of Blossom, such as before a
+     * reload, is replaced so clicks never reach a disabled plugin.
+     *
+     * @param player the player.
+     */
+    static void inject(Player player) throws Throwable {
+        Channel channel = channel(player);
+        UUID uuid = player.getUniqueId();
+        INJECTED.add(channel);
+        channel.eventLoop().execute(() -> {
+            ChannelPipeline pipeline = channel.pipeline();
+            ChannelHandler existing = pipeline.get(HANDLER_NAME);
+            if (existing instanceof Interceptor) return;
+            if (existing != null) pipeline.remove(HANDLER_NAME);
+            if (pipeline.get("packet_handler") != null) pipeline.addBefore("packet_handler", HANDLER_NAME, new Interceptor(uuid));
+        });
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Removes the packet interceptor from a player's connection.
+     *
+     * @param player the player.
+     */
+    static void uninject(Player player) throws Throwable {
+        uninject(channel(player));
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Removes the packet interceptor from every connection it was ever added to.
+     */
+    static void uninjectAll() {
+        for (Channel channel : INJECTED) {
+            uninject(channel);
+        }
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Removes the packet interceptor from a connection.
+     *
+     * @param channel the connection.
+     */
+    private static void uninject(Channel channel) {
+        INJECTED.remove(channel);
+        if (!channel.isOpen()) return;
+        channel.eventLoop().execute(() -> {
+            if (channel.pipeline().get(HANDLER_NAME) != null) channel.pipeline().remove(HANDLER_NAME);
+        });
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Gets the Netty channel of a player.
+     *
+     * @param player the player.
+     * @return the channel.
+     */
+    private static Channel channel(Player player) throws Throwable {
+        return (Channel) CHANNEL.invoke(NETWORK_MANAGER.invoke(PLAYER_CONNECTION.invoke(PLAYER_GET_HANDLE.invoke(player))));
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Sends a packet to a player.
+     *
+     * @param player the player.
+     * @param packet the packet.
+     */
+    private static void send(Player player, Object packet) throws Throwable {
+        SEND_PACKET.invoke(PLAYER_CONNECTION.invoke(PLAYER_GET_HANDLE.invoke(player)), packet);
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Gets every instance field of a class and its superclasses which matches a predicate,
+     * in the order they are declared.
+     *
+     * @param clazz the class to search.
+     * @param predicate the predicate the fields must match.
+     * @throws NoSuchFieldException if no field matches.
+     * @return the accessible fields.
+     */
+    private static Field[] fields(Class<?> clazz, Predicate<Field> predicate) throws NoSuchFieldException {
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> current = clazz; current != null; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || !predicate.test(field)) continue;
+                field.setAccessible(true);
+                fields.add(field);
+            }
+        }
+        if (fields.isEmpty()) throw new NoSuchFieldException("No field in " + clazz.getName() + " matches the predicate.");
+        return fields.toArray(new Field[0]);
+    }
+
+    /**
+     * Hands clicks and closes of a player's virtual GUI to it, before the server sees them.
+     */
+    private static final class Interceptor extends ChannelInboundHandlerAdapter {
+
+        private final UUID player;
+
+        private Interceptor(UUID player) {
+            this.player = player;
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            VirtualGUI gui = VirtualGUI.getOpen(player);
+            if (gui == null || !gui.intercept(msg)) ctx.fireChannelRead(msg);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.ankoki.blossom.listeners;
+
+import com.ankoki.blossom.commands.CommandManager;
+import com.destroystokyo.paper.event.server.AsyncTabCompleteEvent;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+
+import java.util.List;
+
+public class AsyncCompletionHandler implements Listener {
+
+    @EventHandler(ignoreCancelled = true)
+    private void onAsyncTabComplete(AsyncTabCompleteEvent e) {
+        if (!e.isCommand() || e.isHandled()) return;
+        List<String> completions = CommandManager.complete(e.getSender(), e.getBuffer());
+        if (completions == null) return;
+        e.setCompletions(completions);
+        e.setHandled(true);
+    }
+}
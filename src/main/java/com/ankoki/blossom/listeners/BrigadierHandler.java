@@ -0,0 +1,18 @@
+package com.ankoki.blossom.listeners;
+
+import com.ankoki.blossom.commands.BrigadierCommands;
+import com.destroystokyo.paper.brigadier.BukkitBrigadierCommandSource;
+import com.destroystokyo.paper.event.brigadier.CommandRegisteredEvent;
+import com.mojang.brigadier.tree.LiteralCommandNode;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+
+public class BrigadierHandler implements Listener {
+
+    @EventHandler
+    private void onCommandRegistered(CommandRegisteredEvent<BukkitBrigadierCommandSource> e) {
+        LiteralCommandNode<BukkitBrigadierCommandSource> literal = BrigadierCommands.createLiteral(e.getCommand(), e.getCommandLabel(),
+                e.getBrigadierCommand());
+        if (literal != null) e.setLiteral(literal);
+    }
+}
@@ -0,0 +1,20 @@
+package com.ankoki.blossom.listeners;
+
+import com.ankoki.blossom.commands.ArgumentParsers;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+public class CommandHandler implements Listener {
+
+    @EventHandler
+    private void onJoin(PlayerJoinEvent e) {
+        ArgumentParsers.getPlayerNames().add(e.getPlayer().getName());
+    }
+
+    @EventHandler
+    private void onQuit(PlayerQuitEvent e) {
+        ArgumentParsers.getPlayerNames().remove(e.getPlayer().getName());
+    }
+}
@@ -1,46 +1,85 @@
 package com.ankoki.blossom.listeners;
 
+import com.ankoki.blossom.Blossom;
 import com.ankoki.blossom.gui.GUI;
 import com.ankoki.blossom.gui.ClickEvent;
+import com.ankoki.blossom.gui.ClickLimit;
 import com.ankoki.blossom.gui.CloseEvent;
 import com.ankoki.blossom.gui.DragEvent;
+import com.ankoki.blossom.gui.HandlerWatchdog;
+import com.ankoki.blossom.gui.SlotDragEvent;
+import com.ankoki.blossom.gui.VirtualGUI;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryCloseEvent;
 import org.bukkit.event.inventory.InventoryDragEvent;
-import org.bukkit.inventory.Inventory;
+import org.bukkit.event.inventory.InventoryOpenEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.inventory.ItemStack;
 
+import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 public class InventoryHandler implements Listener {
 
+    private final Map<UUID, ClickLimit.Bucket> buckets = new HashMap<>();
+
     @EventHandler
     private void onInventoryClick(InventoryClickEvent e) {
-        Inventory inv = e.getInventory();
-        int slot = e.getSlot();
-        for (Map.Entry<Inventory, Map<Integer, ClickEvent>> entry : GUI.ALL_CLICK_EVENTS.entrySet()) {
-            if (inv == entry.getKey()) {
-                for (Map.Entry<Integer, ClickEvent> entry1 : entry.getValue().entrySet()) {
-                    if (slot == entry1.getKey()) entry1.getValue().onClick(e);
-                }
+        GUI gui = GUI.fromInventory(e.getInventory());
+        if (gui == null) return;
+        ClickLimit limit = gui.getClickLimit();
+        if (limit != ClickLimit.NONE && gui.hasClickEvent(e.getRawSlot())) {
+            ClickLimit.Bucket bucket = buckets.computeIfAbsent(e.getWhoClicked().getUniqueId(), uuid -> new ClickLimit.Bucket());
+            if (!limit.tryClick(bucket, System.nanoTime())) {
+                e.setCancelled(true);
+                return;
             }
         }
+        ClickEvent event = gui.getClickEvent(e.getRawSlot());
+        if (event != null) HandlerWatchdog.click(gui, event, e);
     }
 
     @EventHandler
     private void onInventoryDrag(InventoryDragEvent e) {
-        Inventory inv = e.getInventory();
-        for (Map.Entry<Inventory, DragEvent> entry : GUI.ALL_DRAG_EVENTS.entrySet()) {
-            if (inv == entry.getKey()) entry.getValue().onDrag(e);
+        GUI gui = GUI.fromInventory(e.getInventory());
+        if (gui == null) return;
+        DragEvent event = gui.getDragEvent();
+        if (event != null) HandlerWatchdog.drag(gui, event, e);
+        if (!gui.hasSlotDragEvents()) return;
+        for (Map.Entry<Integer, ItemStack> entry : e.getNewItems().entrySet()) {
+            SlotDragEvent slotEvent = gui.getSlotDragEvent(entry.getKey());
+            if (slotEvent != null) HandlerWatchdog.drag(gui, slotEvent, e, entry.getKey(), entry.getValue());
         }
     }
 
     @EventHandler
     private void onInventoryClose(InventoryCloseEvent e) {
-        Inventory inv = e.getInventory();
-        for (Map.Entry<Inventory, CloseEvent> entry : GUI.ALL_CLOSE_EVENTS.entrySet()) {
-            if (inv == entry.getKey()) entry.getValue().onClose(e);
-        }
+        GUI gui = GUI.fromInventory(e.getInventory());
+        // Disposing closes the GUI for its viewers, possibly while its plugin is disabling.
+        if (gui == null || gui.isRetitling() || gui.isDisposed()) return;
+        CloseEvent event = gui.getCloseEvent();
+        if (event != null) HandlerWatchdog.close(gui, event, e);
+        if (gui.getLifecycle() != GUI.Lifecycle.DISPOSABLE) return;
+        // The closing player is still a viewer during the event, and the GUI may be reopened this tick.
+        Bukkit.getScheduler().runTask(Blossom.getInstance(), () -> {
+            if (gui.getMainInventory().getViewers().isEmpty()) gui.dispose();
+        });
+    }
+
+    @EventHandler(ignoreCancelled = true)
+    private void onInventoryOpen(InventoryOpenEvent e) {
+        // A real inventory replaces any virtual GUI on the client.
+        if (e.getPlayer() instanceof Player player) VirtualGUI.forget(player);
+    }
+
+    @EventHandler
+    private void onQuit(PlayerQuitEvent e) {
+        buckets.remove(e.getPlayer().getUniqueId());
+        VirtualGUI.forget(e.getPlayer());
     }
 }
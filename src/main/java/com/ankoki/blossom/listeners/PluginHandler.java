@@ -0,0 +1,18 @@
+package com.ankoki.blossom.listeners;
+
+import com.ankoki.blossom.commands.CommandManager;
+import com.ankoki.blossom.gui.GUILayout;
+import com.ankoki.blossom.gui.GUIRegistry;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.PluginDisableEvent;
+
+public class PluginHandler implements Listener {
+
+    @EventHandler
+    private void onPluginDisable(PluginDisableEvent e) {
+        GUIRegistry.disposeAll(e.getPlugin());
+        GUILayout.unload(e.getPlugin());
+        CommandManager.unregisterAll(e.getPlugin());
+    }
+}
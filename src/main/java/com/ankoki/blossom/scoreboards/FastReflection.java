@@ -111,6 +111,22 @@ public final class FastReflection {
         }
     }
 
+    public static Field field(Class<?> clazz, Class<?> type, String... names) throws NoSuchFieldException {
+        for (String name : names) {
+            try {
+                Field field = clazz.getDeclaredField(name);
+                if (field.getType() != type) {
+                    continue;
+                }
+                field.setAccessible(true);
+                return field;
+            } catch (NoSuchFieldException e) {
+                // try the next name
+            }
+        }
+        throw new NoSuchFieldException("No field of type " + type.getName() + " in " + clazz.getName() + " is named " + String.join(" or ", names) + ".");
+    }
+
     static Class<?> innerClass(Class<?> parentClass, Predicate<Class<?>> classPredicate) throws ClassNotFoundException {
         for (Class<?> innerClass : parentClass.getDeclaredClasses()) {
             if (classPredicate.test(innerClass)) {
@@ -0,0 +1,235 @@
+package com.ankoki.blossom.utils;
+
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Works out how items would be added to an inventory, without touching it.
+ * <p>
+ * The contents are snapshotted once, and every {@link #plan(ItemStack...)} is
+ * simulated on top of the previous ones, following the same rules as
+ * {@link Inventory#addItem(ItemStack...)}: similar stacks are topped up first,
+ * then empty slots are used. A plan can then be applied in one go.
+ */
+@SuppressWarnings("unused")
+public final class InventorySimulator {
+
+    /**
+     * Snapshots the storage contents of an inventory.
+     *
+     * @param inventory the inventory to simulate.
+     * @return the new simulator.
+     */
+    public static InventorySimulator of(Inventory inventory) {
+        return new InventorySimulator(inventory.getStorageContents(), inventory.getMaxStackSize());
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Creates a new InventorySimulator.
+     *
+     * @param contents the snapshotted contents, which are never modified.
+     * @param maxStackSize the max stack size of the inventory.
+     */
+    private InventorySimulator(ItemStack[] contents, int maxStackSize) {
+        this.items = contents;
+        this.amounts = new int[contents.length];
+        this.maxStackSize = maxStackSize;
+        for (int i = 0; i < contents.length; i++) {
+            ItemStack item = contents[i];
+            if (item == null || item.getType().isAir()) {
+                items[i] = null;
+            } else {
+                amounts[i] = item.getAmount();
+            }
+        }
+    }
+
+    private final ItemStack[] items;
+    private final int[] amounts;
+    private final int maxStackSize;
+
+    /**
+     * Works out how many of an item would fit, without planning it.
+     *
+     * @param item the item to check.
+     * @return how many of the item would fit, at most its amount.
+     */
+    public int fits(ItemStack item) {
+        if (item == null || item.getType().isAir()) return 0;
+        int wanted = item.getAmount();
+        int max = maxStackSize(item);
+        int fitted = 0;
+        for (int i = 0; i < items.length && fitted < wanted; i++) {
+            if (items[i] == null) {
+                fitted += max;
+            } else if (items[i].isSimilar(item)) {
+                fitted += Math.max(0, max - amounts[i]);
+            }
+        }
+        return Math.min(fitted, wanted);
+    }
+
+    /**
+     * Checks if every item would fit together, without planning them.
+     *
+     * @param items the items to check.
+     * @return whether or not all items fit.
+     */
+    public boolean fitsAll(ItemStack... items) {
+        return copy().plan(items).fitsAll();
+    }
+
+    /**
+     * Plans where a batch of items would go. Later plans are made on top of this one.
+     *
+     * @param batch the items to add.
+     * @return the plan, which can be applied to the real inventory.
+     */
+    public Plan plan(ItemStack... batch) {
+        Plan plan = new Plan(batch.length, items.length);
+        for (int index = 0; index < batch.length; index++) {
+            ItemStack item = batch[index];
+            if (item == null || item.getType().isAir()) continue;
+            int remaining = item.getAmount();
+            int max = maxStackSize(item);
+            for (int i = 0; i < items.length && remaining > 0; i++) {
+                if (items[i] == null || amounts[i] >= max || !items[i].isSimilar(item)) continue;
+                int moved = Math.min(remaining, max - amounts[i]);
+                amounts[i] += moved;
+                remaining -= moved;
+                plan.touch(i, items[i], amounts[i]);
+            }
+            for (int i = 0; i < items.length && remaining > 0; i++) {
+                if (items[i] != null) continue;
+                int moved = Math.min(remaining, max);
+                items[i] = item;
+                amounts[i] = moved;
+                remaining -= moved;
+                plan.touch(i, item, moved);
+            }
+            plan.fitted[index] = item.getAmount() - remaining;
+            if (remaining > 0) {
+                ItemStack leftover = item.clone();
+                leftover.setAmount(remaining);
+                plan.leftovers.add(leftover);
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Gets how many of an item fit in one slot.
+     *
+     * @param item the item.
+     * @return the max amount per slot.
+     */
+    private int maxStackSize(ItemStack item) {
+        return Math.max(1, Math.min(item.getMaxStackSize(), maxStackSize));
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Copies the simulated state.
+     *
+     * @return a simulator with the same state.
+     */
+    private InventorySimulator copy() {
+        InventorySimulator copy = new InventorySimulator(new ItemStack[items.length], maxStackSize);
+        System.arraycopy(items, 0, copy.items, 0, items.length);
+        System.arraycopy(amounts, 0, copy.amounts, 0, amounts.length);
+        return copy;
+    }
+
+    /**
+     * The slots a batch of items would be put in.
+     */
+    public static final class Plan {
+
+        private final int[] fitted;
+        private final List<ItemStack> leftovers = new ArrayList<>();
+        private final BitSet touched = new BitSet();
+        private final ItemStack[] slotItems;
+        private final int[] slotAmounts;
+
+        private Plan(int batchSize, int inventorySize) {
+            this.fitted = new int[batchSize];
+            this.slotItems = new ItemStack[inventorySize];
+            this.slotAmounts = new int[inventorySize];
+        }
+
+        /**
+         * INTERNAL USE ONLY
+         * <p>
+         * Records the new state of a slot.
+         *
+         * @param slot the slot.
+         * @param item the item in the slot.
+         * @param amount the new amount of the slot.
+         */
+        private void touch(int slot, ItemStack item, int amount) {
+            touched.set(slot);
+            slotItems[slot] = item;
+            slotAmounts[slot] = amount;
+        }
+
+        /**
+         * Gets how many of an item in the batch fit.
+         *
+         * @param index the index of the item in the batch.
+         * @return how many of said item fit.
+         */
+        public int getFitted(int index) {
+            return fitted[index];
+        }
+
+        /**
+         * Checks if the whole batch fits.
+         *
+         * @return whether or not every item fits.
+         */
+        public boolean fitsAll() {
+            return leftovers.isEmpty();
+        }
+
+        /**
+         * Gets what would not fit.
+         *
+         * @return the leftover items.
+         */
+        public List<ItemStack> getLeftovers() {
+            return leftovers;
+        }
+
+        /**
+         * Gets the slots which would change.
+         *
+         * @return the changed slots, in ascending order.
+         */
+        public int[] getSlots() {
+            return touched.stream().toArray();
+        }
+
+        /**
+         * Writes the planned slots into an inventory. The inventory should not have
+         * changed since the simulator was created.
+         *
+         * @param inventory the inventory to write to.
+         */
+        public void apply(Inventory inventory) {
+            for (int slot = touched.nextSetBit(0); slot >= 0; slot = touched.nextSetBit(slot + 1)) {
+                ItemStack item = slotItems[slot].clone();
+                item.setAmount(slotAmounts[slot]);
+                inventory.setItem(slot, item);
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.ankoki.blossom.utils;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * A set of words which can be listed by prefix, ignoring case.
+ * <p>
+ * Finding the words with a prefix only visits the words which have it, rather than
+ * filtering every word, and words can be added and removed one at a time. The trie
+ * is safe to use from multiple threads, so it can back async tab completion.
+ */
+@SuppressWarnings("unused")
+public final class PrefixTrie {
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    /**
+     * Creates a trie holding the given words.
+     *
+     * @param words the words.
+     * @return the new trie.
+     */
+    public static PrefixTrie of(Collection<String> words) {
+        PrefixTrie trie = new PrefixTrie();
+        for (String word : words) {
+            trie.add(word);
+        }
+        return trie;
+    }
+
+    private final Node root = new Node();
+    private int size;
+
+    /**
+     * Adds a word, replacing a word which only differs by case.
+     *
+     * @param word the word.
+     * @return whether or not the trie did not have the word yet.
+     */
+    public synchronized boolean add(String word) {
+        String key = word.toLowerCase(Locale.ROOT);
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.child(key.charAt(i), true);
+        }
+        boolean added = node.word == null;
+        node.word = word;
+        if (added) size++;
+        return added;
+    }
+
+    /**
+     * Removes a word, ignoring case.
+     *
+     * @param word the word.
+     * @return whether or not the trie had the word.
+     */
+    public synchronized boolean remove(String word) {
+        String key = word.toLowerCase(Locale.ROOT);
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            path[i + 1] = path[i].child(key.charAt(i), false);
+            if (path[i + 1] == null) return false;
+        }
+        Node node = path[key.length()];
+        if (node.word == null) return false;
+        node.word = null;
+        size--;
+        for (int i = key.length(); i > 0 && path[i].word == null && path[i].keys.length == 0; i--) {
+            path[i - 1].removeChild(key.charAt(i - 1));
+        }
+        return true;
+    }
+
+    /**
+     * Checks if the trie has a word, ignoring case.
+     *
+     * @param word the word.
+     * @return whether or not the word was added.
+     */
+    public synchronized boolean contains(String word) {
+        Node node = find(word);
+        return node != null && node.word != null;
+    }
+
+    /**
+     * Adds every word starting with a prefix to a collection, in alphabetical order.
+     *
+     * @param prefix the prefix, ignoring case.
+     * @param completions where to add the words, as they were added to the trie.
+     * @param limit the most words the collection should end up holding.
+     */
+    public synchronized void complete(String prefix, Collection<String> completions, int limit) {
+        Node node = find(prefix);
+        if (node != null) collect(node, completions, limit);
+    }
+
+    /**
+     * Adds every word starting with a prefix to a collection, in alphabetical order.
+     *
+     * @param prefix the prefix, ignoring case.
+     * @param completions where to add the words, as they were added to the trie.
+     */
+    public void complete(String prefix, Collection<String> completions) {
+        complete(prefix, completions, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Gets the amount of words in the trie.
+     *
+     * @return the amount of words.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Removes every word.
+     */
+    public synchronized void clear() {
+        root.keys = NO_KEYS;
+        root.children = NO_CHILDREN;
+        root.word = null;
+        size = 0;
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Finds the node of a prefix.
+     *
+     * @param prefix the prefix.
+     * @return the node, or null if no word has the prefix.
+     */
+    private Node find(String prefix) {
+        String key = prefix.toLowerCase(Locale.ROOT);
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i), false);
+        }
+        return node;
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * Adds the words under a node, depth first.
+     *
+     * @param node the node.
+     * @param completions where to add the words.
+     * @param limit the most words the collection should hold.
+     * @return whether or not the limit was not reached.
+     */
+    private static boolean collect(Node node, Collection<String> completions, int limit) {
+        if (completions.size() >= limit) return false;
+        if (node.word != null) completions.add(node.word);
+        for (Node child : node.children) {
+            if (!collect(child, completions, limit)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * INTERNAL USE ONLY
+     * <p>
+     * A character of a word, with its children sorted by character.
+     */
+    private static final class Node {
+
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private String word;
+
+        private Node child(char key, boolean create) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index >= 0) return children[index];
+            if (!create) return null;
+            index = -index - 1;
+            Node child = new Node();
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            newKeys[index] = key;
+            newChildren[index] = child;
+            System.arraycopy(keys, index, newKeys, index + 1, keys.length - index);
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+
+        private void removeChild(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index < 0) return;
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            keys = newKeys;
+            children = newChildren;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.ankoki.blossom;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Items and inventories which can be used without a server.
+ * <p>
+ * Plain item stacks ask the server's item factory about their meta, so these
+ * items keep a display name and lore of their own instead.
+ */
+public final class TestItems {
+
+    private TestItems() {}
+
+    /**
+     * Creates an item without meta.
+     *
+     * @param type the type of the item.
+     * @param amount the amount.
+     * @return the item.
+     */
+    public static ItemStack item(Material type, int amount) {
+        return new TestItem(type, amount, null, null);
+    }
+
+    /**
+     * Creates an item with a display name and lore.
+     *
+     * @param type the type of the item.
+     * @param name the display name.
+     * @param lore the lore.
+     * @return the item.
+     */
+    public static ItemStack named(Material type, String name, String... lore) {
+        return new TestItem(type, 1, name, lore.length == 0 ? null : Arrays.asList(lore));
+    }
+
+    /**
+     * Creates an inventory over an array, which is written to when items are set.
+     *
+     * @param contents the contents.
+     * @param maxStackSize the max stack size of the inventory.
+     * @return the inventory.
+     */
+    public static Inventory inventory(ItemStack[] contents, int maxStackSize) {
+        return (Inventory) Proxy.newProxyInstance(TestItems.class.getClassLoader(), new Class<?>[]{Inventory.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getStorageContents", "getContents" -> contents.clone();
+                    case "getMaxStackSize" -> maxStackSize;
+                    case "getSize" -> contents.length;
+                    case "setItem" -> {
+                        contents[(int) args[0]] = (ItemStack) args[1];
+                        yield null;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static final class TestItem extends ItemStack {
+
+        private final String name;
+        private final List<String> lore;
+
+        private TestItem(Material type, int amount, String name, List<String> lore) {
+            super(type, amount);
+            this.name = name;
+            this.lore = lore;
+        }
+
+        @Override
+        public boolean hasItemMeta() {
+            return name != null;
+        }
+
+        @Override
+        public ItemMeta getItemMeta() {
+            return (ItemMeta) Proxy.newProxyInstance(TestItems.class.getClassLoader(), new Class<?>[]{ItemMeta.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "hasDisplayName" -> name != null;
+                        case "getDisplayName" -> name;
+                        case "hasLore" -> lore != null;
+                        case "getLore" -> lore;
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+
+        @Override
+        public boolean isSimilar(ItemStack stack) {
+            return stack instanceof TestItem item && item.getType() == getType() && Objects.equals(item.name, name);
+        }
+
+        @Override
+        public TestItem clone() {
+            return (TestItem) super.clone();
+        }
+    }
+}
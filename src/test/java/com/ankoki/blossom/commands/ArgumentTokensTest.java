@@ -0,0 +1,84 @@
+package com.ankoki.blossom.commands;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArgumentTokensTest {
+
+    private static Integer integer(String token) {
+        return ArgumentTokens.parseNumber(token, false, Integer::valueOf);
+    }
+
+    private static Double decimal(String token) {
+        return ArgumentTokens.parseNumber(token, true, Double::valueOf);
+    }
+
+    @Test
+    void parsesWholeNumbers() {
+        assertEquals(42, integer("42"));
+        assertEquals(-7, integer("-7"));
+        assertEquals(3, integer("+3"));
+        assertNull(integer("1.5"));
+        assertNull(integer("1-2"));
+        assertNull(integer("-"));
+        assertNull(integer("abc"));
+    }
+
+    @Test
+    void outOfRangeNumbersDoNotThrow() {
+        assertNull(integer("2147483648"));
+        assertNull(ArgumentTokens.parseNumber("40000", false, Short::valueOf));
+        assertEquals(2147483648L, ArgumentTokens.<Long>parseNumber("2147483648", false, Long::valueOf));
+    }
+
+    @Test
+    void parsesDecimals() {
+        assertEquals(1.5, decimal("1.5"));
+        assertEquals(0.5, decimal(".5"));
+        assertNull(decimal("1.2.3"));
+        assertNull(decimal("."));
+        assertNull(decimal("1e5"));
+        assertNull(decimal("NaN"));
+    }
+
+    @Test
+    void checksPlayerNames() {
+        assertTrue(ArgumentTokens.isPlayerName("Notch"));
+        assertTrue(ArgumentTokens.isPlayerName("jeb_"));
+        assertTrue(ArgumentTokens.isPlayerName("abcdefghijklmnop"));
+        assertFalse(ArgumentTokens.isPlayerName("abcdefghijklmnopq"));
+        assertFalse(ArgumentTokens.isPlayerName("not a name"));
+        assertFalse(ArgumentTokens.isPlayerName("world:nether"));
+    }
+
+    @Test
+    void parsesUUIDs() {
+        UUID id = UUID.randomUUID();
+        assertEquals(id, ArgumentTokens.parseUUID(id.toString()));
+        assertEquals(id, ArgumentTokens.parseUUID(id.toString().toUpperCase()));
+        assertNull(ArgumentTokens.parseUUID(id.toString().replace('-', '0')));
+        assertNull(ArgumentTokens.parseUUID("1-1-1-1-1"));
+        assertNull(ArgumentTokens.parseUUID("g" + id.toString().substring(1)));
+        assertNull(ArgumentTokens.parseUUID(""));
+    }
+
+    @Test
+    void parsesDurations() {
+        assertEquals(Duration.ofMinutes(90), ArgumentTokens.parseDuration("1h30m"));
+        assertEquals(Duration.ofSeconds(45), ArgumentTokens.parseDuration("45"));
+        assertEquals(Duration.ofDays(8).plusSeconds(5), ArgumentTokens.parseDuration("1W1d5"));
+        assertEquals(Duration.ofMinutes(3), ArgumentTokens.parseDuration("1m2m"));
+        assertNull(ArgumentTokens.parseDuration("h"));
+        assertNull(ArgumentTokens.parseDuration("1hh"));
+        assertNull(ArgumentTokens.parseDuration("5y"));
+        assertNull(ArgumentTokens.parseDuration("-5s"));
+        assertNull(ArgumentTokens.parseDuration("99999999999s"));
+    }
+}
@@ -0,0 +1,122 @@
+package com.ankoki.blossom.commands;
+
+import com.ankoki.blossom.commands.CommandManager.CommandUser;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CommandMethodTest {
+
+    private static final List<Object> STATIC_CALLS = new ArrayList<>();
+
+    @SuppressWarnings("unused")
+    private static final class Commands {
+
+        private final List<Object> calls = new ArrayList<>();
+
+        private void base(CommandSender sender) {
+            calls.add(sender);
+        }
+
+        private void text(CommandSender sender, String token) {
+            calls.add(token);
+        }
+
+        private void give(CommandSender sender, int amount, String item, String alias) {
+            calls.add(amount);
+            calls.add(item);
+            calls.add(alias);
+        }
+
+        private static void counted(CommandSender sender, Integer amount) {
+            STATIC_CALLS.add(amount);
+        }
+
+        private void player(Player player) {
+            calls.add(player);
+        }
+
+        private void fail(CommandSender sender) {
+            throw new IllegalStateException("failed");
+        }
+
+        private void noSender(String token) {}
+    }
+
+    private static Method method(String name) {
+        for (Method method : Commands.class.getDeclaredMethods()) {
+            if (method.getName().equals(name)) return method;
+        }
+        throw new AssertionError("No method named " + name);
+    }
+
+    @Test
+    void invokesWithoutArguments() throws Throwable {
+        Commands commands = new Commands();
+        CommandSender sender = TestSenders.console();
+        CommandMethod.compile(commands, method("base"), 0, null).invoke(sender, "cmd", new Object[0]);
+        assertEquals(List.of(sender), commands.calls);
+    }
+
+    @Test
+    void aTrailingStringIsTheAliasOnlyWhenItIsNotAnArgument() throws Throwable {
+        Commands commands = new Commands();
+        CommandSender sender = TestSenders.console();
+        CommandMethod.compile(commands, method("text"), 0, null).invoke(sender, "alias", new Object[0]);
+        CommandMethod.compile(commands, method("text"), 1, null).invoke(sender, "alias", new Object[]{"argument"});
+        assertEquals(List.of("alias", "argument"), commands.calls);
+    }
+
+    @Test
+    void movesTheAliasAfterTheArguments() throws Throwable {
+        Commands commands = new Commands();
+        CommandMethod give = CommandMethod.compile(commands, method("give"), 2, CommandUser.BOTH);
+        give.invoke(TestSenders.console(), "g", new Object[]{5, "stone"});
+        assertEquals(List.of(5, "stone", "g"), commands.calls);
+    }
+
+    @Test
+    void staticMethodsIgnoreTheInstance() throws Throwable {
+        STATIC_CALLS.clear();
+        CommandMethod.compile(null, method("counted"), 1, null).invoke(TestSenders.console(), "c", new Object[]{3});
+        assertEquals(List.of(3), STATIC_CALLS);
+    }
+
+    @Test
+    void exceptionsArePassedOn() {
+        CommandMethod fail = CommandMethod.compile(new Commands(), method("fail"), 0, null);
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> fail.invoke(TestSenders.console(), "f", new Object[0]));
+        assertEquals("failed", ex.getMessage());
+    }
+
+    @Test
+    void acceptsOnlyTheSenderTypeAndUser() {
+        Commands commands = new Commands();
+        CommandMethod player = CommandMethod.compile(commands, method("player"), 0, null);
+        assertTrue(player.accepts(TestSenders.player()));
+        assertFalse(player.accepts(TestSenders.console()));
+        CommandMethod console = CommandMethod.compile(commands, method("base"), 0, CommandUser.CONSOLE);
+        assertTrue(console.accepts(TestSenders.console()));
+        assertFalse(console.accepts(TestSenders.player()));
+        assertSame(CommandUser.BOTH, CommandMethod.compile(commands, method("base"), 0, null).getUser());
+    }
+
+    @Test
+    void rejectsMethodsWithTheWrongParameters() {
+        Commands commands = new Commands();
+        assertThrows(IllegalArgumentException.class, () -> CommandMethod.compile(commands, method("noSender"), 0, null));
+        assertThrows(IllegalArgumentException.class, () -> CommandMethod.compile(commands, method("base"), 1, null));
+        assertThrows(IllegalArgumentException.class, () -> CommandMethod.compile(commands, method("give"), 1, null));
+    }
+}
@@ -0,0 +1,139 @@
+package com.ankoki.blossom.commands;
+
+import com.ankoki.blossom.commands.annotations.Argument;
+import com.ankoki.blossom.commands.annotations.BaseCommand;
+import com.ankoki.blossom.commands.annotations.SubArgument;
+import org.bukkit.command.CommandSender;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CommandTreeTest {
+
+    @SuppressWarnings("unused")
+    private static final class Kit {
+
+        @BaseCommand
+        private void base(CommandSender sender) {}
+
+        @Argument(name = "give")
+        private void give(CommandSender sender) {}
+
+        @Argument(name = "reload", permisson = "kit.reload")
+        private void reload(CommandSender sender) {}
+
+        @SubArgument(name = "all", lastArgument = "give")
+        private void giveAll(CommandSender sender) {}
+
+        @SubArgument(name = "alias", lastArgument = "give")
+        private void giveAlias(CommandSender sender, String alias) {}
+    }
+
+    @SuppressWarnings("unused")
+    private static final class Duplicate {
+
+        @Argument(name = "give")
+        private void give(CommandSender sender) {}
+
+        @SubArgument(name = "give", lastArgument = "give")
+        private void giveAgain(CommandSender sender) {}
+    }
+
+    @SuppressWarnings("unused")
+    private static final class Orphan {
+
+        @SubArgument(name = "all", lastArgument = "give")
+        private void giveAll(CommandSender sender) {}
+    }
+
+    @SuppressWarnings("unused")
+    private static final class Loop {
+
+        @SubArgument(name = "first", lastArgument = "second")
+        private void first(CommandSender sender) {}
+
+        @SubArgument(name = "second", lastArgument = "first")
+        private void second(CommandSender sender) {}
+    }
+
+    @SuppressWarnings("unused")
+    private static final class WrongParameters {
+
+        @Argument(name = "give")
+        private void give(String token) {}
+    }
+
+    @Test
+    void buildsLiteralsUnderTheirParents() {
+        CommandTree tree = CommandTree.build(Kit.class, new Kit());
+        CommandTree.Node root = tree.getRoot();
+        assertTrue(root.hasMethods());
+        assertEquals(2, root.getLiterals().size());
+        assertTrue(root.getParameters().isEmpty());
+        assertEquals(0, tree.getDepth());
+        CommandTree.Node give = root.match("GIVE");
+        assertNotNull(give);
+        assertEquals("give", give.getName());
+        assertEquals(0, give.getArity());
+        assertTrue(give.isLiteral());
+        assertNull(give.getParser());
+        assertSame(give.match("all"), give.next("ALL", new Object[0]));
+        assertNull(root.match(""));
+        assertNull(root.next("", new Object[0]));
+        assertNull(root.match("all"));
+    }
+
+    @Test
+    void completesTheLastArgument() {
+        CommandTree tree = CommandTree.build(Kit.class, new Kit());
+        CommandSender sender = TestSenders.console("kit.reload");
+        assertEquals(List.of("give", "reload"), tree.complete(sender, new String[]{""}));
+        assertEquals(List.of("give"), tree.complete(sender, new String[]{"g"}));
+        assertEquals(List.of("alias", "all"), tree.complete(sender, new String[]{"give", "a"}));
+        assertEquals(List.of("alias", "all"), tree.complete(sender, new String[]{"", "give", "", "al"}));
+        assertEquals(List.of(), tree.complete(sender, new String[]{"nope", ""}));
+        assertEquals(List.of(), tree.complete(sender, new String[0]));
+    }
+
+    @Test
+    void completionSkipsArgumentsWithoutPermission() {
+        CommandTree tree = CommandTree.build(Kit.class, new Kit());
+        CommandSender sender = TestSenders.console();
+        assertEquals(List.of("give"), tree.complete(sender, new String[]{""}));
+        assertEquals(List.of(), tree.complete(sender, new String[]{"reload", ""}));
+        assertTrue(tree.getRoot().match("reload").permits(TestSenders.console("kit.reload")));
+    }
+
+    @Test
+    void rejectsArgumentsDeclaredTwice() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> CommandTree.build(Duplicate.class, new Duplicate()));
+        assertTrue(ex.getMessage().contains("more than once"));
+    }
+
+    @Test
+    void rejectsArgumentsFollowingMissingArguments() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> CommandTree.build(Orphan.class, new Orphan()));
+        assertTrue(ex.getMessage().contains("does not exist"));
+    }
+
+    @Test
+    void rejectsLoops() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> CommandTree.build(Loop.class, new Loop()));
+        assertTrue(ex.getMessage().contains("follows itself"));
+    }
+
+    @Test
+    void rejectsMethodsWithTheWrongParameters() {
+        assertThrows(IllegalArgumentException.class, () -> CommandTree.build(WrongParameters.class, new WrongParameters()));
+    }
+}
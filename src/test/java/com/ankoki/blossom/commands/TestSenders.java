@@ -0,0 +1,48 @@
+package com.ankoki.blossom.commands;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.lang.reflect.Proxy;
+import java.util.Set;
+
+/**
+ * Command senders which can be used without a server.
+ */
+final class TestSenders {
+
+    private TestSenders() {}
+
+    /**
+     * Creates a sender which is not a player, such as the console.
+     *
+     * @param permissions the permissions the sender has.
+     * @return the sender.
+     */
+    static CommandSender console(String... permissions) {
+        return create(CommandSender.class, permissions);
+    }
+
+    /**
+     * Creates a player.
+     *
+     * @param permissions the permissions the player has.
+     * @return the player.
+     */
+    static Player player(String... permissions) {
+        return create(Player.class, permissions);
+    }
+
+    private static <T extends CommandSender> T create(Class<T> type, String... permissions) {
+        Set<String> granted = Set.of(permissions);
+        return type.cast(Proxy.newProxyInstance(TestSenders.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "hasPermission" -> granted.contains(String.valueOf(args[0]));
+                    case "getName" -> type.getSimpleName();
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> type.getSimpleName();
+                    default -> throw new UnsupportedOperationException(method.getName());
+                }));
+    }
+}
@@ -0,0 +1,66 @@
+package com.ankoki.blossom.gui;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClickLimitTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void noneLetsEveryClickThrough() {
+        ClickLimit.Bucket bucket = new ClickLimit.Bucket();
+        for (int i = 0; i < 100; i++) {
+            assertTrue(ClickLimit.NONE.tryClick(bucket, 0L));
+        }
+    }
+
+    @Test
+    void burstIsAllowedThenLimited() {
+        ClickLimit limit = ClickLimit.of(3, 1, 0);
+        ClickLimit.Bucket bucket = new ClickLimit.Bucket();
+        assertTrue(limit.tryClick(bucket, 0L));
+        assertTrue(limit.tryClick(bucket, 1L));
+        assertTrue(limit.tryClick(bucket, 2L));
+        assertFalse(limit.tryClick(bucket, 3L));
+    }
+
+    @Test
+    void tokensRefillOverTime() {
+        ClickLimit limit = ClickLimit.of(1, 2, 0);
+        ClickLimit.Bucket bucket = new ClickLimit.Bucket();
+        assertTrue(limit.tryClick(bucket, 0L));
+        assertFalse(limit.tryClick(bucket, SECOND / 4));
+        assertTrue(limit.tryClick(bucket, SECOND / 2 + 1));
+    }
+
+    @Test
+    void refillIsCappedAtTheBurst() {
+        ClickLimit limit = ClickLimit.of(2, 10, 0);
+        ClickLimit.Bucket bucket = new ClickLimit.Bucket();
+        assertTrue(limit.tryClick(bucket, 0L));
+        long later = 60 * SECOND;
+        assertTrue(limit.tryClick(bucket, later));
+        assertTrue(limit.tryClick(bucket, later + 1));
+        assertFalse(limit.tryClick(bucket, later + 2));
+    }
+
+    @Test
+    void debounceDropsQuickClicks() {
+        ClickLimit limit = ClickLimit.of(10, 10, 100);
+        ClickLimit.Bucket bucket = new ClickLimit.Bucket();
+        assertTrue(limit.tryClick(bucket, 0L));
+        assertFalse(limit.tryClick(bucket, 50_000_000L));
+        assertTrue(limit.tryClick(bucket, 100_000_000L));
+    }
+
+    @Test
+    void invalidLimitsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ClickLimit.of(0, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> ClickLimit.of(1, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> ClickLimit.of(1, 1, -1));
+    }
+}
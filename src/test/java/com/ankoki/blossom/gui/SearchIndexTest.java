@@ -0,0 +1,76 @@
+package com.ankoki.blossom.gui;
+
+import org.bukkit.ChatColor;
+import org.bukkit.Material;
+import org.junit.jupiter.api.Test;
+
+import static com.ankoki.blossom.TestItems.item;
+import static com.ankoki.blossom.TestItems.named;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SearchIndexTest {
+
+    private static SearchIndex index() {
+        SearchIndex index = new SearchIndex();
+        index.put(0, named(Material.STONE, ChatColor.RED + "Fire Sword", "Burns whatever it hits"));
+        index.put(1, named(Material.STONE, "Ice Wand", "Freezes foes"));
+        index.put(2, item(Material.DIAMOND_SWORD, 1));
+        return index;
+    }
+
+    @Test
+    void shortTermsMatchTheStartOfWords() {
+        SearchIndex index = index();
+        assertArrayEquals(new int[]{0}, index.search("fi"));
+        assertArrayEquals(new int[]{0, 1}, index.search("f"));
+        assertArrayEquals(new int[0], index.search("ir"));
+    }
+
+    @Test
+    void longTermsMatchAnywhere() {
+        SearchIndex index = index();
+        assertArrayEquals(new int[]{0, 2}, index.search("sword"));
+        assertArrayEquals(new int[]{1}, index.search("reez"));
+        assertArrayEquals(new int[]{0}, index.search("fi swo"));
+        assertArrayEquals(new int[0], index.search("swords"));
+    }
+
+    @Test
+    void everyTermHasToMatchIgnoringCaseAndColours() {
+        SearchIndex index = index();
+        assertArrayEquals(new int[]{0}, index.search("SWORD  burns"));
+        assertArrayEquals(new int[]{2}, index.search("diamond sw"));
+        assertArrayEquals(new int[0], index.search("ice sword"));
+        assertArrayEquals(new int[]{0}, index.search(ChatColor.BLUE + "fire"));
+    }
+
+    @Test
+    void trigramsInTheWrongOrderDoNotMatch() {
+        SearchIndex index = new SearchIndex();
+        index.put(0, named(Material.STONE, "abcxbcd"));
+        assertArrayEquals(new int[0], index.search("abcd"));
+        assertArrayEquals(new int[]{0}, index.search("cxbc"));
+    }
+
+    @Test
+    void blankQueriesMatchEverything() {
+        assertArrayEquals(new int[]{0, 1, 2}, index().search("   "));
+    }
+
+    @Test
+    void itemsCanBeReplacedAndRemoved() {
+        SearchIndex index = index();
+        index.put(0, named(Material.STONE, "Water Sword"));
+        assertArrayEquals(new int[0], index.search("fire"));
+        assertArrayEquals(new int[]{0}, index.search("water"));
+        index.remove(1);
+        assertArrayEquals(new int[0], index.search("wand"));
+        assertEquals(2, index.size());
+        index.put(2, null);
+        assertArrayEquals(new int[]{0}, index.search("sword"));
+        index.clear();
+        assertEquals(0, index.size());
+        assertArrayEquals(new int[0], index.search(""));
+    }
+}
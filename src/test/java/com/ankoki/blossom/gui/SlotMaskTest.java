@@ -0,0 +1,73 @@
+package com.ankoki.blossom.gui;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlotMaskTest {
+
+    @Test
+    void ofContainsOnlyTheGivenSlots() {
+        SlotMask mask = SlotMask.of(0, 5, 63);
+        assertArrayEquals(new int[]{0, 5, 63}, mask.toArray());
+        assertEquals(3, mask.size());
+        assertTrue(mask.contains(63));
+        assertFalse(mask.contains(1));
+        assertFalse(mask.contains(-1));
+        assertFalse(mask.contains(64));
+    }
+
+    @Test
+    void slotsOutsideTheMaskAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> SlotMask.of(64));
+        assertThrows(IllegalArgumentException.class, () -> SlotMask.of(-1));
+        assertThrows(IllegalArgumentException.class, () -> SlotMask.range(5, 4));
+    }
+
+    @Test
+    void rangeIncludesBothEnds() {
+        assertArrayEquals(new int[]{3, 4, 5}, SlotMask.range(3, 5).toArray());
+        assertEquals(-1L, SlotMask.range(0, 63).toLong());
+        assertEquals(1L << 63, SlotMask.range(63, 63).toLong());
+    }
+
+    @Test
+    void allCoversTheFirstSlots() {
+        assertEquals(SlotMask.EMPTY, SlotMask.all(0));
+        assertEquals(54, SlotMask.all(54).size());
+        assertTrue(SlotMask.all(54).contains(53));
+        assertFalse(SlotMask.all(54).contains(54));
+    }
+
+    @Test
+    void rowsAndColumns() {
+        assertArrayEquals(new int[]{9, 10, 11, 12, 13, 14, 15, 16, 17}, SlotMask.row(1).toArray());
+        assertArrayEquals(new int[]{4, 13, 22}, SlotMask.column(4, 3).toArray());
+        assertThrows(IllegalArgumentException.class, () -> SlotMask.column(9, 3));
+    }
+
+    @Test
+    void borderAndInnerSplitTheInventory() {
+        SlotMask border = SlotMask.border(3);
+        SlotMask inner = SlotMask.inner(3);
+        assertArrayEquals(new int[]{10, 11, 12, 13, 14, 15, 16}, inner.toArray());
+        assertEquals(20, border.size());
+        assertTrue(border.and(inner).isEmpty());
+        assertEquals(SlotMask.all(27), border.or(inner));
+        assertEquals(SlotMask.EMPTY, SlotMask.border(0));
+    }
+
+    @Test
+    void combinesMasks() {
+        SlotMask a = SlotMask.of(1, 2, 3);
+        SlotMask b = SlotMask.of(3, 4);
+        assertEquals(SlotMask.of(1, 2, 3, 4), a.or(b));
+        assertEquals(SlotMask.of(3), a.and(b));
+        assertEquals(SlotMask.of(1, 2), a.andNot(b));
+        assertEquals(a.hashCode(), SlotMask.of(3, 2, 1).hashCode());
+    }
+}
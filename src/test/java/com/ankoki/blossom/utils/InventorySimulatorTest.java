@@ -0,0 +1,86 @@
+package com.ankoki.blossom.utils;
+
+import com.ankoki.blossom.TestItems;
+import org.bukkit.Material;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.junit.jupiter.api.Test;
+
+import static com.ankoki.blossom.TestItems.item;
+import static com.ankoki.blossom.TestItems.named;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InventorySimulatorTest {
+
+    @Test
+    void topsUpSimilarStacksBeforeEmptySlots() {
+        ItemStack[] contents = {null, item(Material.STONE, 60), item(Material.AIR, 0)};
+        InventorySimulator simulator = InventorySimulator.of(TestItems.inventory(contents, 64));
+        InventorySimulator.Plan plan = simulator.plan(item(Material.STONE, 10));
+        assertTrue(plan.fitsAll());
+        assertEquals(10, plan.getFitted(0));
+        assertArrayEquals(new int[]{0, 1}, plan.getSlots());
+    }
+
+    @Test
+    void fitsCountsWithoutPlanning() {
+        ItemStack[] contents = {item(Material.STONE, 60), null};
+        InventorySimulator simulator = InventorySimulator.of(TestItems.inventory(contents, 64));
+        assertEquals(68, simulator.fits(item(Material.STONE, 100)));
+        assertEquals(1, simulator.fits(item(Material.STONE, 1)));
+        assertEquals(0, simulator.fits(item(Material.AIR, 1)));
+        assertEquals(68, simulator.fits(item(Material.STONE, 100)));
+    }
+
+    @Test
+    void respectsTheMaxStackSizeOfItemsAndInventory() {
+        ItemStack[] contents = new ItemStack[3];
+        InventorySimulator swords = InventorySimulator.of(TestItems.inventory(contents, 64));
+        assertEquals(3, swords.fits(item(Material.DIAMOND_SWORD, 5)));
+        InventorySimulator small = InventorySimulator.of(TestItems.inventory(contents, 10));
+        assertEquals(30, small.fits(item(Material.STONE, 64)));
+    }
+
+    @Test
+    void differentItemsDoNotStack() {
+        ItemStack[] contents = {named(Material.STONE, "Special"), null};
+        InventorySimulator simulator = InventorySimulator.of(TestItems.inventory(contents, 64));
+        InventorySimulator.Plan plan = simulator.plan(item(Material.STONE, 64), item(Material.STONE, 1));
+        assertEquals(64, plan.getFitted(0));
+        assertEquals(0, plan.getFitted(1));
+        assertFalse(plan.fitsAll());
+        assertEquals(1, plan.getLeftovers().size());
+        assertEquals(1, plan.getLeftovers().get(0).getAmount());
+    }
+
+    @Test
+    void plansBuildOnEachOther() {
+        ItemStack[] contents = new ItemStack[1];
+        InventorySimulator simulator = InventorySimulator.of(TestItems.inventory(contents, 64));
+        assertTrue(simulator.plan(item(Material.STONE, 40)).fitsAll());
+        assertTrue(simulator.fitsAll(item(Material.STONE, 24)));
+        assertFalse(simulator.fitsAll(item(Material.STONE, 25)));
+        InventorySimulator.Plan second = simulator.plan(item(Material.STONE, 30));
+        assertEquals(24, second.getFitted(0));
+        assertEquals(6, second.getLeftovers().get(0).getAmount());
+    }
+
+    @Test
+    void applyWritesOnlyThePlannedSlots() {
+        ItemStack kept = item(Material.DIAMOND_SWORD, 1);
+        ItemStack[] contents = {kept, item(Material.STONE, 32), null};
+        Inventory inventory = TestItems.inventory(contents, 64);
+        InventorySimulator.Plan plan = InventorySimulator.of(inventory).plan(item(Material.STONE, 40));
+        assertNull(contents[2]);
+        plan.apply(inventory);
+        assertSame(kept, contents[0]);
+        assertEquals(64, contents[1].getAmount());
+        assertEquals(8, contents[2].getAmount());
+        assertEquals(Material.STONE, contents[2].getType());
+    }
+}
@@ -0,0 +1,61 @@
+package com.ankoki.blossom.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrefixTrieTest {
+
+    private static List<String> complete(PrefixTrie trie, String prefix) {
+        List<String> completions = new ArrayList<>();
+        trie.complete(prefix, completions);
+        return completions;
+    }
+
+    @Test
+    void completesInAlphabeticalOrderIgnoringCase() {
+        PrefixTrie trie = PrefixTrie.of(List.of("Steve", "alex", "Stan", "st"));
+        assertEquals(List.of("st", "Stan", "Steve"), complete(trie, "ST"));
+        assertEquals(List.of("alex", "st", "Stan", "Steve"), complete(trie, ""));
+        assertEquals(List.of(), complete(trie, "stu"));
+    }
+
+    @Test
+    void stopsAtTheLimit() {
+        PrefixTrie trie = PrefixTrie.of(List.of("a1", "a2", "a3"));
+        List<String> completions = new ArrayList<>(List.of("existing"));
+        trie.complete("a", completions, 3);
+        assertEquals(List.of("existing", "a1", "a2"), completions);
+    }
+
+    @Test
+    void addingReplacesWordsWhichOnlyDifferByCase() {
+        PrefixTrie trie = new PrefixTrie();
+        assertTrue(trie.add("notch"));
+        assertFalse(trie.add("Notch"));
+        assertEquals(1, trie.size());
+        assertEquals(List.of("Notch"), complete(trie, "n"));
+        assertTrue(trie.contains("NOTCH"));
+        assertFalse(trie.contains("not"));
+    }
+
+    @Test
+    void removingKeepsOtherWords() {
+        PrefixTrie trie = PrefixTrie.of(List.of("jeb", "jeb_", "jens"));
+        assertTrue(trie.remove("JEB_"));
+        assertFalse(trie.remove("jeb_"));
+        assertFalse(trie.remove("je"));
+        assertEquals(List.of("jeb", "jens"), complete(trie, "je"));
+        assertTrue(trie.remove("jeb"));
+        assertEquals(List.of("jens"), complete(trie, "je"));
+        assertEquals(1, trie.size());
+        trie.clear();
+        assertEquals(0, trie.size());
+        assertEquals(List.of(), complete(trie, ""));
+    }
+}